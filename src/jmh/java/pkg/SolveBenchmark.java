@@ -0,0 +1,50 @@
+package pkg;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures solving square boards of different sizes against dictionaries of different sizes.
+ * The dictionary is compiled during setup, so only the search itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+    // Number of rows and columns of the generated board.
+    @Param({"4", "10", "25", "50", "100"})
+    int boardSize;
+
+    // Number of words in the generated dictionary.
+    @Param({"20", "1000", "10000", "100000"})
+    int dictionarySize;
+
+    // Boggle instance holding the generated dictionary and board.
+    Boggle boggle;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        boggle = SyntheticInputs.boggle(SyntheticInputs.words(dictionarySize, 42), SyntheticInputs.grid(boardSize, 11));
+        boggle.compileDictionary();
+    }
+
+    @Benchmark
+    public List<String> solve(){
+        return boggle.solve();
+    }
+
+    @Benchmark
+    public List<String> solveParallel(){
+        return boggle.solveParallel();
+    }
+
+    @Benchmark
+    public BoardScore score(){
+        return boggle.score(BoardScore.BOGGLE_POINTS);
+    }
+}
@@ -0,0 +1,109 @@
+package pkg;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates reproducible word lists and puzzle grids for the benchmarks.
+ *
+ * Letters are drawn with roughly the frequencies of English text, so that boards contain a
+ * realistic number of words from the generated dictionaries. The same seed always gives the same input.
+ */
+final class SyntheticInputs {
+    // Lower case letters of the alphabet.
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    // Relative frequency of each letter above in English text, in tenths of a percent.
+    private static final int[] FREQUENCIES = {
+            82, 15, 28, 43, 127, 22, 20, 61, 70, 2, 8, 40, 24, 67, 75, 19, 1, 60, 63, 91, 28, 10, 24, 2, 20, 1
+    };
+    // Running totals of FREQUENCIES, used to draw a letter with a single binary search.
+    private static final int[] CUMULATIVE = new int[FREQUENCIES.length];
+
+    static {
+        int total = 0;
+        for(int i=0;i<FREQUENCIES.length;i++){
+            total += FREQUENCIES[i];
+            CUMULATIVE[i] = total;
+        }
+    }
+
+    private SyntheticInputs() {
+    }
+
+    /**
+     * Generates distinct words of 2 to 12 letters, most of them 3 to 7 letters long.
+     * @param count Number of words to generate
+     * @param seed Seed of the random generator
+     * @return List of distinct words
+     */
+    static List<String> words(int count, long seed){
+        Random random = new Random(seed);
+        Set<String> words = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        while(words.size() < count){
+            int length = 2 + Math.min(10, (int) Math.abs(random.nextGaussian() * 2.5 + 3));
+            word.setLength(0);
+            for(int i=0;i<length;i++){
+                word.append(letter(random));
+            }
+            words.add(word.toString());
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Generates the rows of a square puzzle grid.
+     * @param size Number of rows and columns
+     * @param seed Seed of the random generator
+     * @return Rows of the grid separated by new lines, in the format read by Boggle.getPuzzle()
+     */
+    static String grid(int size, long seed){
+        Random random = new Random(seed);
+        StringBuilder grid = new StringBuilder();
+        for(int row=0;row<size;row++){
+            for(int column=0;column<size;column++){
+                grid.append(letter(random));
+            }
+            grid.append('\n');
+        }
+        return grid.toString();
+    }
+
+    /**
+     * Creates a Boggle instance holding the given words and grid.
+     * @param words Words of the dictionary
+     * @param grid Rows of the puzzle grid
+     * @return Boggle instance ready for solve()
+     */
+    static Boggle boggle(List<String> words, String grid){
+        Boggle boggle = new Boggle();
+        boggle.wordList.addAll(words);
+        if(!boggle.getPuzzle(new BufferedReader(new StringReader(grid)))){
+            throw new IllegalStateException("Generated grid was rejected");
+        }
+        return boggle;
+    }
+
+    /**
+     * Draws a letter according to the English letter frequencies.
+     */
+    private static char letter(Random random){
+        int value = random.nextInt(CUMULATIVE[CUMULATIVE.length-1]);
+        int low = 0;
+        int high = CUMULATIVE.length-1;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(CUMULATIVE[middle] > value){
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return LETTERS.charAt(low);
+    }
+}
@@ -0,0 +1,70 @@
+package pkg;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a Trie from a word list and searching it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrieBenchmark {
+    // Number of words in the generated dictionary.
+    @Param({"1000", "10000", "100000", "400000"})
+    int dictionarySize;
+
+    // Words of the generated dictionary.
+    List<String> words;
+    // Trie holding the generated dictionary, used by the search benchmark.
+    Trie trie;
+    // Strings searched by the search benchmark: whole words, prefixes and misses.
+    String[] queries;
+    // Position of the next query to search.
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        words = SyntheticInputs.words(dictionarySize, 42);
+        trie = new Trie();
+        trie.generateDictionary(words);
+
+        Random random = new Random(7);
+        queries = new String[4096];
+        for(int i=0;i<queries.length;i++){
+            String word = words.get(random.nextInt(words.size()));
+            switch(i % 3){
+                case 0:
+                    queries[i] = word;
+                    break;
+                case 1:
+                    queries[i] = word.substring(0, 1 + random.nextInt(word.length()));
+                    break;
+                default:
+                    queries[i] = word + "qz";
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Trie generateDictionary(){
+        Trie generated = new Trie();
+        generated.generateDictionary(words);
+        return generated;
+    }
+
+    @Benchmark
+    public int search(){
+        String query = queries[next];
+        next = (next + 1) & (queries.length - 1);
+        return trie.search(query);
+    }
+}
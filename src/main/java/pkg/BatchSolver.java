@@ -0,0 +1,710 @@
+package pkg;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Solves large batches of puzzles against one shared dictionary, and writes the results to a single channel.
+ *
+ * The input is either a directory, each regular file of which holds one puzzle grid, or a single file
+ * holding many grids separated by empty lines. Puzzles pass through a pipeline of bounded queues:
+ * one thread lists the puzzles, a pool of threads reads and checks the grids, a second pool solves
+ * them and formats their results, and one thread copies the formatted results into a direct buffer
+ * that is written to the output channel whenever it fills up.
+ *
+ * Results are written in the order of the input. A directory is listed one level at a time with the
+ * entries of each level sorted by name, so only the names within the directories being listed are held,
+ * never the whole tree. A stage that gets ahead of the next one waits for room in its queue, and at most
+ * a fixed number of puzzles are read but not yet written, so apart from those names the memory used
+ * does not depend on the size of the batch.
+ *
+ * A puzzle whose grid cannot be read or solved is written as a failed result and the batch goes on.
+ * Any other failure of a stage stops the whole batch, and run() throws it.
+ * While the batch runs, a snapshot of its Progress is passed to a listener at a fixed interval.
+ */
+public class BatchSolver {
+    // Header of the binary format: "BGLR" followed by the format version.
+    static final int BINARY_MAGIC = 0x42474C52;
+    // Version of the binary format.
+    static final int BINARY_VERSION = 1;
+    // Size of the buffer the writer fills before writing to the output channel.
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * Formats the results can be written in.
+     */
+    public enum Format {
+        // One JSON object per line: {"puzzle":name,"words":[{"word":..,"x":..,"y":..,"path":..},..]},
+        // or {"puzzle":name,"error":message} if the grid cannot be read or solved.
+        JSON_LINES,
+        // The int BINARY_MAGIC and the int BINARY_VERSION, then per puzzle as written by DataOutputStream: the name
+        // as UTF, a boolean telling whether it was solved, and if so the int number of words followed by the word
+        // as UTF, its int x and y coordinates and its directions as UTF for every word.
+        BINARY
+    }
+
+    // The dictionary shared by all puzzles.
+    private final CompiledDictionary dictionary;
+    // Rule that decides which letters of the grids are neighbours.
+    private final Topology topology;
+    // Number of threads reading and checking grids.
+    private final int parseThreads;
+    // Number of threads solving grids.
+    private final int solveThreads;
+    // Capacity of each queue between two stages.
+    private final int queueCapacity;
+
+    /**
+     * Creates a solver for grids whose neighbours are the eight letters around each letter, with one
+     * solving thread per processor and a reading thread for every four of them.
+     * @param dictionary The dictionary shared by all puzzles
+     */
+    public BatchSolver(CompiledDictionary dictionary) {
+        this(dictionary, Topology.EIGHT_WAY, Math.max(1, Runtime.getRuntime().availableProcessors()/4),
+                Runtime.getRuntime().availableProcessors(), 256);
+    }
+
+    /**
+     * @param dictionary The dictionary shared by all puzzles
+     * @param topology Rule that decides which letters of the grids are neighbours
+     * @param parseThreads Number of threads reading and checking grids
+     * @param solveThreads Number of threads solving grids
+     * @param queueCapacity Capacity of each queue between two stages
+     */
+    public BatchSolver(CompiledDictionary dictionary, Topology topology, int parseThreads, int solveThreads, int queueCapacity) {
+        if(parseThreads <= 0 || solveThreads <= 0 || queueCapacity <= 0){
+            throw new IllegalArgumentException("Every stage needs at least one thread and room for one puzzle");
+        }
+        this.dictionary = dictionary;
+        this.topology = topology;
+        this.parseThreads = parseThreads;
+        this.solveThreads = solveThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Solves every puzzle of the input and writes the results to the output channel, which is not closed.
+     * @param input A directory of puzzle files, or a file of grids separated by empty lines
+     * @param output Channel the results are written to
+     * @param format Format of the results
+     * @param listener Receives a snapshot of the progress at every interval and once at the end, or null
+     * @param intervalMillis Time between two progress snapshots in milliseconds
+     * @return The progress at the end of the batch
+     * @throws IOException If the input cannot be listed or read, or the output cannot be written
+     */
+    public Progress run(Path input, WritableByteChannel output, Format format, Consumer<Progress> listener, long intervalMillis)
+            throws IOException {
+        Run run = new Run(input, output, format);
+        ExecutorService threads = Executors.newFixedThreadPool(parseThreads + solveThreads + 2);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        if(listener!=null){
+            reporter.scheduleAtFixedRate(() -> listener.accept(run.progress()), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        try{
+            threads.submit(run::list);
+            for(int i=0;i<parseThreads;i++){
+                threads.submit(run::parse);
+            }
+            for(int i=0;i<solveThreads;i++){
+                threads.submit(run::solve);
+            }
+            threads.submit(run::write);
+
+            // waits for the writer, or for the first stage that fails, since the others may then never finish
+            run.done.get();
+        } catch (ExecutionException exception){
+            if(exception.getCause() instanceof IOException){
+                throw (IOException) exception.getCause();
+            }
+            throw new IOException("Batch failed", exception.getCause());
+        } catch (InterruptedException exception){
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", exception);
+        } finally {
+            reporter.shutdownNow();
+            // stops the stages still waiting for room or for puzzles if a stage failed
+            threads.shutdownNow();
+        }
+
+        Progress progress = run.progress();
+        if(listener!=null){
+            listener.accept(progress);
+        }
+        return progress;
+    }
+
+    /**
+     * Counters of a running or finished batch.
+     */
+    public static final class Progress {
+        // Number of puzzles listed from the input.
+        private final long listed;
+        // Number of puzzles solved.
+        private final long solved;
+        // Number of puzzles whose results were written.
+        private final long written;
+        // Number of puzzles whose grid could not be read or solved.
+        private final long failed;
+        // Number of words written for all puzzles.
+        private final long words;
+        // Number of bytes written to the output channel.
+        private final long bytes;
+        // Number of puzzles waiting in each queue, from the first stage to the last.
+        private final int[] queued;
+        // Time since the batch started in nanoseconds.
+        private final long elapsedNanos;
+
+        Progress(long listed, long solved, long written, long failed, long words, long bytes, int[] queued, long elapsedNanos) {
+            this.listed = listed;
+            this.solved = solved;
+            this.written = written;
+            this.failed = failed;
+            this.words = words;
+            this.bytes = bytes;
+            this.queued = queued;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return Number of puzzles listed from the input
+         */
+        public long getListed(){
+            return listed;
+        }
+
+        /**
+         * @return Number of puzzles solved
+         */
+        public long getSolved(){
+            return solved;
+        }
+
+        /**
+         * @return Number of puzzles whose results were written, including those that failed
+         */
+        public long getWritten(){
+            return written;
+        }
+
+        /**
+         * @return Number of puzzles whose grid could not be read or solved
+         */
+        public long getFailed(){
+            return failed;
+        }
+
+        /**
+         * @return Number of words written for all puzzles
+         */
+        public long getWords(){
+            return words;
+        }
+
+        /**
+         * @return Number of bytes written to the output channel
+         */
+        public long getBytes(){
+            return bytes;
+        }
+
+        /**
+         * @param stage 0 for the grids waiting to be read, 1 for those waiting to be solved and 2 for those waiting to be written
+         * @return Number of puzzles waiting in the queue in front of the stage
+         */
+        public int getQueued(int stage){
+            return queued[stage];
+        }
+
+        /**
+         * @return Time since the batch started in nanoseconds
+         */
+        public long getElapsedNanos(){
+            return elapsedNanos;
+        }
+
+        /**
+         * @return Puzzles written per second since the batch started
+         */
+        public double getPuzzlesPerSecond(){
+            return elapsedNanos==0 ? 0 : written * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString(){
+            return "listed=" + listed + " solved=" + solved + " written=" + written + " failed=" + failed
+                    + " words=" + words + " bytes=" + bytes + " queued=" + queued[0] + "/" + queued[1] + "/" + queued[2]
+                    + " " + String.format(Locale.ROOT, "%.1f", getPuzzlesPerSecond()) + " puzzles/s";
+        }
+    }
+
+    /**
+     * A puzzle on its way through the pipeline. Each stage fills in more of it.
+     */
+    private static final class Job {
+        // A job that tells the next stage that no more puzzles follow.
+        static final Job END = new Job(-1, null, null, null);
+
+        // Position of the puzzle in the input, counted from 0.
+        final long sequence;
+        // Name of the puzzle in the results.
+        final String name;
+        // File holding the grid, or null if the lines of the grid were read already.
+        final Path file;
+        // Lines of the grid, or null if they have to be read from the file.
+        final List<String> lines;
+
+        // Rows of the grid once read, or null if the grid is invalid.
+        List<String> puzzleGrid;
+        // Formatted result, once solved.
+        byte[] record;
+        // Why the puzzle could not be read or solved, or null if it was solved.
+        String error;
+        // Number of words found.
+        int wordCount;
+
+        Job(long sequence, String name, Path file, List<String> lines) {
+            this.sequence = sequence;
+            this.name = name;
+            this.file = file;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * State of one call of run(), shared by the threads of its stages.
+     */
+    private final class Run {
+        // A directory of puzzle files, or a file of grids.
+        private final Path input;
+        // Channel the results are written to.
+        private final WritableByteChannel output;
+        // Format of the results.
+        private final Format format;
+
+        // Puzzles listed, waiting to be read.
+        private final BlockingQueue<Job> listed = new ArrayBlockingQueue<>(queueCapacity);
+        // Puzzles read, waiting to be solved.
+        private final BlockingQueue<Job> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        // Puzzles solved, waiting to be written.
+        private final BlockingQueue<Job> solved = new ArrayBlockingQueue<>(queueCapacity);
+        // Limits the puzzles listed but not yet written, which bounds the results held back to keep the input order.
+        private final Semaphore window = new Semaphore(4 * queueCapacity + parseThreads + solveThreads);
+        // Number of reading and solving threads still running.
+        private final AtomicInteger parsing = new AtomicInteger(parseThreads);
+        private final AtomicInteger solving = new AtomicInteger(solveThreads);
+        // Completed by the writer once every result is written, or with the first error that stopped a stage.
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Counters reported in the progress.
+        private final AtomicLong listedCount = new AtomicLong();
+        private final AtomicLong solvedCount = new AtomicLong();
+        private final AtomicLong writtenCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+        private final AtomicLong wordCount = new AtomicLong();
+        private final AtomicLong byteCount = new AtomicLong();
+        // Time the batch started.
+        private final long startTime = System.nanoTime();
+
+        Run(Path input, WritableByteChannel output, Format format) {
+            this.input = input;
+            this.output = output;
+            this.format = format;
+        }
+
+        Progress progress(){
+            return new Progress(listedCount.get(), solvedCount.get(), writtenCount.get(), failedCount.get(), wordCount.get(),
+                    byteCount.get(), new int[]{listed.size(), parsed.size(), solved.size()}, System.nanoTime() - startTime);
+        }
+
+        /**
+         * Stops the batch: run() throws the first error passed here.
+         */
+        private void fail(Throwable error){
+            done.completeExceptionally(error);
+        }
+
+        /**
+         * First stage: lists the puzzles of the input, reading the grids of a single file in the process.
+         */
+        void list(){
+            try{
+                if(Files.isDirectory(input)){
+                    listDirectory(input);
+                } else {
+                    try(BufferedReader stream = Files.newBufferedReader(input, StandardCharsets.UTF_8)){
+                        List<String> lines = new ArrayList<>();
+                        String line;
+                        while((line=stream.readLine())!=null){
+                            if(!line.isEmpty()){
+                                lines.add(line);
+                            } else if(!lines.isEmpty()){
+                                offer(new Job(listedCount.get(), input.getFileName() + "#" + (listedCount.get()+1), null, lines));
+                                lines = new ArrayList<>();
+                            }
+                        }
+                        if(!lines.isEmpty()){
+                            offer(new Job(listedCount.get(), input.getFileName() + "#" + (listedCount.get()+1), null, lines));
+                        }
+                    }
+                }
+            } catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException | Error exception){
+                fail(exception);
+            } finally {
+                end(listed, parseThreads);
+            }
+        }
+
+        /**
+         * Offers the puzzle files of a directory and of its subdirectories, while listing them.
+         * Like Files.walk(), symbolic links to directories are not followed.
+         * @param directory The input directory or one of its subdirectories
+         */
+        private void listDirectory(Path directory) throws IOException, InterruptedException {
+            List<Path> entries;
+            try(Stream<Path> paths = Files.list(directory)){
+                entries = paths.sorted().collect(Collectors.toList());
+            }
+            for(Path entry: entries){
+                if(Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)){
+                    listDirectory(entry);
+                } else if(Files.isRegularFile(entry)){
+                    offer(new Job(listedCount.get(), input.relativize(entry).toString(), entry, null));
+                }
+            }
+        }
+
+        /**
+         * Passes a listed puzzle to the readers, once fewer puzzles than the window are waiting to be written.
+         */
+        private void offer(Job job) throws InterruptedException {
+            window.acquire();
+            listed.put(job);
+            listedCount.incrementAndGet();
+        }
+
+        /**
+         * Second stage: reads and checks the grids, the same way Boggle.getPuzzle() does.
+         */
+        void parse(){
+            try{
+                for(Job job=listed.take();job!=Job.END;job=listed.take()){
+                    try{
+                        job.puzzleGrid = read(job);
+                    } catch (RuntimeException exception){
+                        job.puzzleGrid = null;
+                    }
+                    if(job.puzzleGrid==null){
+                        job.error = "Error while reading puzzle";
+                    }
+                    parsed.put(job);
+                }
+            } catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error exception){
+                fail(exception);
+            } finally {
+                // the last reader to finish tells every solver, even if it stopped with an error
+                if(parsing.decrementAndGet()==0){
+                    end(parsed, solveThreads);
+                }
+            }
+        }
+
+        /**
+         * @return Rows of the grid of the puzzle, or null if the grid is invalid or its file cannot be read
+         */
+        private List<String> read(Job job){
+            Boggle boggle = new Boggle(dictionary);
+            boolean valid;
+            if(job.file!=null){
+                try(BufferedReader stream = Files.newBufferedReader(job.file, StandardCharsets.UTF_8)){
+                    valid = boggle.getPuzzle(stream);
+                } catch (IOException exception){
+                    valid = false;
+                }
+            } else {
+                valid = boggle.getPuzzle(new BufferedReader(new StringReader(String.join("\n", job.lines))));
+            }
+            return valid ? boggle.puzzleGrid : null;
+        }
+
+        /**
+         * Third stage: solves the grids and formats their results, so the writer only has to copy bytes.
+         */
+        void solve(){
+            try{
+                for(Job job=parsed.take();job!=Job.END;job=parsed.take()){
+                    if(job.error==null){
+                        try{
+                            List<String> result = new PuzzleSolver(dictionary, Board.of(job.puzzleGrid, topology)).solve();
+                            job.record = format(job.name, result, null);
+                            job.wordCount = result.size();
+                            solvedCount.incrementAndGet();
+                        } catch (RuntimeException exception){
+                            // an Error is left to stop the whole batch, since the JVM or the solver can no longer be trusted
+                            job.error = "Error while solving puzzle: " + exception;
+                        }
+                    }
+                    if(job.error!=null){
+                        job.record = format(job.name, null, job.error);
+                    }
+                    solved.put(job);
+                }
+            } catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException | Error exception){
+                fail(exception);
+            } finally {
+                if(solving.decrementAndGet()==0){
+                    end(solved, 1);
+                }
+            }
+        }
+
+        /**
+         * Last stage: writes the results in input order through one direct buffer.
+         * Completes done once every result is written, or fails it if the output channel cannot be written.
+         */
+        void write(){
+            try{
+                writeAll();
+                done.complete(null);
+            } catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+                fail(exception);
+            } catch (IOException | RuntimeException | Error exception){
+                fail(exception);
+            }
+        }
+
+        /**
+         * Copies the results into the buffer until the solvers pass END.
+         * @throws IOException If the output channel cannot be written
+         */
+        private void writeAll() throws IOException, InterruptedException {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES);
+            if(format==Format.BINARY){
+                buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION);
+            }
+            // results that arrived before the results of earlier puzzles
+            Map<Long, Job> waiting = new HashMap<>();
+            long next = 0;
+            for(Job job=solved.take();job!=Job.END;job=solved.take()){
+                waiting.put(job.sequence, job);
+                for(Job ready=waiting.remove(next);ready!=null;ready=waiting.remove(next)){
+                    if(ready.record.length > buffer.remaining()){
+                        drain(buffer);
+                    }
+                    if(ready.record.length > buffer.remaining()){
+                        writeFully(ByteBuffer.wrap(ready.record));
+                    } else {
+                        buffer.put(ready.record);
+                    }
+                    if(ready.error!=null){
+                        failedCount.incrementAndGet();
+                    }
+                    wordCount.addAndGet(ready.wordCount);
+                    writtenCount.incrementAndGet();
+                    window.release();
+                    next++;
+                }
+            }
+            drain(buffer);
+        }
+
+        /**
+         * Writes and empties the buffer.
+         */
+        private void drain(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while(bytes.hasRemaining()){
+                byteCount.addAndGet(output.write(bytes));
+            }
+        }
+
+        /**
+         * Passes one END job per thread of the next stage.
+         */
+        private void end(BlockingQueue<Job> queue, int threads){
+            try{
+                for(int i=0;i<threads;i++){
+                    queue.put(Job.END);
+                }
+            } catch (InterruptedException exception){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Formats the result of one puzzle.
+         * @param name Name of the puzzle
+         * @param result Result lines as returned by PuzzleSolver.solve(), or null if the grid could not be read or solved
+         * @param error Why the grid could not be read or solved, or null if it was solved
+         * @return The bytes written for the puzzle
+         */
+        private byte[] format(String name, List<String> result, String error){
+            if(format==Format.BINARY){
+                return formatBinary(name, result);
+            }
+            StringBuilder json = new StringBuilder();
+            json.append("{\"puzzle\":");
+            appendJson(json, name);
+            if(result==null){
+                json.append(",\"error\":");
+                appendJson(json, error);
+                json.append("}\n");
+                return json.toString().getBytes(StandardCharsets.UTF_8);
+            }
+            json.append(",\"words\":[");
+            for(int i=0;i<result.size();i++){
+                String[] fields = result.get(i).split("\t", -1);
+                json.append(i==0 ? "{\"word\":" : ",{\"word\":");
+                appendJson(json, fields[0]);
+                json.append(",\"x\":").append(fields[1]).append(",\"y\":").append(fields[2]).append(",\"path\":");
+                appendJson(json, fields[3]);
+                json.append('}');
+            }
+            json.append("]}\n");
+            return json.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private byte[] formatBinary(String name, List<String> result){
+            try{
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeUTF(name);
+                out.writeBoolean(result!=null);
+                if(result!=null){
+                    out.writeInt(result.size());
+                    for(String line: result){
+                        String[] fields = line.split("\t", -1);
+                        out.writeUTF(fields[0]);
+                        out.writeInt(Integer.parseInt(fields[1]));
+                        out.writeInt(Integer.parseInt(fields[2]));
+                        out.writeUTF(fields[3]);
+                    }
+                }
+                out.flush();
+                return bytes.toByteArray();
+            } catch (IOException exception){
+                // a ByteArrayOutputStream is never closed and never fails
+                throw new IllegalStateException(exception);
+            }
+        }
+    }
+
+    /**
+     * Appends a string as a JSON string literal.
+     */
+    static void appendJson(StringBuilder json, String value){
+        json.append('"');
+        for(int i=0;i<value.length();i++){
+            char character = value.charAt(i);
+            if(character=='"' || character=='\\'){
+                json.append('\\').append(character);
+            } else if(character < 0x20){
+                json.append(String.format("\\u%04x", (int) character));
+            } else {
+                json.append(character);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Solves a batch of puzzles and prints the progress to the error stream every second.
+     * @param args Path of the dictionary word list or snapshot, path of the puzzle directory or file, path of the
+     *             output file or "-" for the standard output, "json" or "binary", and optionally the name of the topology
+     */
+    public static void main(String[] args) {
+        if(args.length < 4){
+            System.out.println("Usage: pkg.BatchSolver {path to dictionary text file or snapshot} {puzzle directory or file}"
+                    + " {output file or -} {json|binary} [topology]");
+            return;
+        }
+        Topology topology = args.length > 4 ? Topology.of(args[4]) : Topology.EIGHT_WAY;
+        if(topology==null){
+            System.out.println("Unknown topology " + args[4]);
+            return;
+        }
+        try{
+            CompiledDictionary dictionary;
+            if(DictionarySnapshot.isSnapshot(Paths.get(args[0]))){
+                dictionary = DictionarySnapshot.load(Paths.get(args[0]));
+            } else {
+                try(BufferedReader stream = new BufferedReader(new FileReader(args[0]))){
+                    Boggle boggle = new Boggle();
+                    if(!boggle.getDictionary(stream)){
+                        System.out.println("Error while reading dictionary");
+                        return;
+                    }
+                    dictionary = boggle.compileDictionary();
+                }
+            }
+
+            int processors = Runtime.getRuntime().availableProcessors();
+            BatchSolver solver = new BatchSolver(dictionary, topology, Math.max(1, processors/4), processors, 256);
+            Format format = "binary".equals(args[3]) ? Format.BINARY : Format.JSON_LINES;
+            Progress progress;
+            if("-".equals(args[2])){
+                WritableByteChannel output = Channels.newChannel(System.out);
+                progress = solver.run(Paths.get(args[1]), output, format, System.err::println, 1000);
+                System.out.flush();
+            } else {
+                try(FileChannel output = FileChannel.open(Paths.get(args[2]), CREATE, TRUNCATE_EXISTING, WRITE)){
+                    progress = solver.run(Paths.get(args[1]), output, format, System.err::println, 1000);
+                }
+            }
+            System.err.println("Done: " + progress);
+        } catch (FileNotFoundException fne){
+            System.out.println("File Not Found for scanning Dictionary!");
+        } catch (IOException ioException){
+            ioException.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package pkg;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static pkg.Boggle.*;
+
+/**
+ * Defines a puzzle grid stored as a flat array of letters, together with a precomputed table of
+ * the neighbours of every letter.
+ *
+ * Letters are numbered column by column: the letter at coordinates (x, y) is stored at index
+ * (x-1)*height + (y-1), so walking the indices in order visits the start letters in the same
+ * order as solve() does (x first, then y). As in the rest of the puzzle, y is counted from the
+ * bottom row of the grid.
+ *
+ * Which letters are neighbours is decided by the Topology of the board, the eight letters around
+ * each letter by default. Moves over an edge are resolved while the table is built, so the search
+ * only walks the table and never checks coordinates.
+ */
+public class Board {
+    // Offsets of the eight letters around a letter along the X axis, in the order they are searched.
+    static final int[] OFFSET_X = {0, 1, 1, 1, 0, -1, -1, -1};
+    // Offsets of the eight letters around a letter along the Y axis, in the order they are searched.
+    static final int[] OFFSET_Y = {1, 1, 0, -1, -1, -1, 0, 1};
+    // Direction moved to reach each of the letters above. Every Topology moves in some of these directions.
+    static final char[] DIRECTIONS = {UP, EAST, RIGHT, SOUTH, DOWN, WEST, LEFT, NORTH};
+
+    // Number of columns in the grid.
+    final int width;
+    // Number of rows in the grid.
+    final int height;
+    // Letters of the grid, indexed by cell number.
+    final char[] letters;
+    // Rule that decides which letters are neighbours.
+    final Topology topology;
+
+    // Position in neighbours[] of the first neighbour of each cell. Has one extra entry marking the end of the table.
+    final int[] neighbourStart;
+    // Cell numbers of the neighbours of every cell that lie inside the grid, in search order.
+    final int[] neighbours;
+    // Direction moved to reach the neighbour stored at the same position in neighbours[].
+    final char[] directions;
+
+    /**
+     * Creates a board from letters that are already laid out column by column, whose neighbours are the eight letters around each letter.
+     * @param width Number of columns
+     * @param height Number of rows
+     * @param letters Letters indexed by cell number
+     */
+    Board(int width, int height, char[] letters) {
+        this(width, height, letters, Topology.EIGHT_WAY);
+    }
+
+    /**
+     * Creates a board from letters that are already laid out column by column.
+     * @param width Number of columns
+     * @param height Number of rows
+     * @param letters Letters indexed by cell number
+     * @param topology Rule that decides which letters are neighbours
+     */
+    Board(int width, int height, char[] letters, Topology topology) {
+        this.width = width;
+        this.height = height;
+        this.letters = letters;
+        this.topology = topology;
+
+        int cells = width*height;
+        int moves = topology.directions.length;
+        neighbourStart = new int[cells+1];
+        int[] cellTable = new int[cells*moves];
+        char[] directionTable = new char[cells*moves];
+        int count = 0;
+        for(int cell=0;cell<cells;cell++){
+            neighbourStart[cell] = count;
+            int x = cell/height + 1;
+            int y = cell%height + 1;
+            for(int i=0;i<moves;i++){
+                int neighbourX = x + topology.offsetX[i];
+                int neighbourY = y + topology.offsetY[i];
+                if(topology.wrapsAround){
+                    neighbourX = Math.floorMod(neighbourX-1, width) + 1;
+                    neighbourY = Math.floorMod(neighbourY-1, height) + 1;
+                } else if(neighbourX<=0 || neighbourY<=0 || neighbourX>width || neighbourY>height){
+                    continue;
+                }
+                int neighbour = (neighbourX-1)*height + (neighbourY-1);
+                // on a grid one letter wide, a wrapped move leads back to the letter itself. On a grid two letters
+                // wide, two moves lead to the same letter, and both are kept so that either direction can be followed
+                if(neighbour==cell){
+                    continue;
+                }
+                cellTable[count] = neighbour;
+                directionTable[count] = topology.directions[i];
+                count++;
+            }
+        }
+        neighbourStart[cells] = count;
+        neighbours = count==cellTable.length ? cellTable : Arrays.copyOf(cellTable, count);
+        directions = count==directionTable.length ? directionTable : Arrays.copyOf(directionTable, count);
+    }
+
+    /**
+     * Creates a board from the rows of a puzzle grid, listed from top to bottom, whose neighbours are the eight letters around each letter.
+     * @param puzzleGrid Rows of the grid, all having the same length
+     * @return A new Board instance
+     */
+    public static Board of(List<String> puzzleGrid){
+        return of(puzzleGrid, Topology.EIGHT_WAY);
+    }
+
+    /**
+     * Creates a board from the rows of a puzzle grid, listed from top to bottom.
+     * @param puzzleGrid Rows of the grid, all having the same length
+     * @param topology Rule that decides which letters are neighbours
+     * @return A new Board instance
+     */
+    public static Board of(List<String> puzzleGrid, Topology topology){
+        int height = puzzleGrid.size();
+        int width = height==0 ? 0 : puzzleGrid.get(0).length();
+        return new Board(width, height, pack(puzzleGrid), topology);
+    }
+
+    /**
+     * Lays out the letters of a puzzle grid column by column, in the order used for cell numbers.
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @return The letters of the grid indexed by cell number
+     */
+    static char[] pack(List<String> puzzleGrid){
+        int height = puzzleGrid.size();
+        int width = height==0 ? 0 : puzzleGrid.get(0).length();
+        char[] letters = new char[width*height];
+        for(int row=0;row<height;row++){
+            String characters = puzzleGrid.get(row);
+            for(int column=0;column<width;column++){
+                letters[column*height + (height-1-row)] = characters.charAt(column);
+            }
+        }
+        return letters;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    /**
+     * @return Number of letters in the grid
+     */
+    public int size(){
+        return letters.length;
+    }
+
+    /**
+     * @param cell A cell number
+     * @return The X coordinate of the cell
+     */
+    public int x(int cell){
+        return cell/height + 1;
+    }
+
+    /**
+     * @param cell A cell number
+     * @return The Y coordinate of the cell
+     */
+    public int y(int cell){
+        return cell%height + 1;
+    }
+
+    /**
+     * @param cell A cell number
+     * @return The letter stored in the cell
+     */
+    public char letter(int cell){
+        return letters[cell];
+    }
+}
@@ -0,0 +1,147 @@
+package pkg;
+
+import java.util.List;
+
+/**
+ * Removes the words of a dictionary that can never be found in a given puzzle grid.
+ *
+ * A word can only be found if it is no longer than the number of letters in the grid and
+ * uses each letter at most as many times as it appears in the grid. Checking this against a
+ * histogram of the letters of the grid is much cheaper than searching for the word, so the
+ * remaining words can be compiled into a small per-board dictionary before the search starts.
+ *
+ * A BoardFilter keeps scratch counts while checking a word, so an instance must not be used
+ * by more than one thread at a time.
+ */
+public class BoardFilter {
+    // Number of times each character appears in the grid, indexed by character.
+    private final int[] counts;
+    // Distinct characters of the grid.
+    private final char[] letters;
+    // Number of letters in the grid, which is also the length of the longest word that can be found.
+    private final int maxLength;
+
+    private BoardFilter(Board board) {
+        int maxLetter = 0;
+        for(char letter: board.letters){
+            maxLetter = Math.max(maxLetter, letter);
+        }
+
+        counts = new int[maxLetter+1];
+        int distinct = 0;
+        for(char letter: board.letters){
+            if(counts[letter]++ == 0){
+                distinct++;
+            }
+        }
+
+        letters = new char[distinct];
+        int index = 0;
+        for(int letter=0;letter<counts.length;letter++){
+            if(counts[letter]>0){
+                letters[index++] = (char) letter;
+            }
+        }
+        maxLength = board.size();
+    }
+
+    /**
+     * Creates a filter for the letters of the given puzzle grid.
+     * @param board The puzzle grid
+     * @return A new BoardFilter instance
+     */
+    public static BoardFilter of(Board board){
+        return new BoardFilter(board);
+    }
+
+    /**
+     * Checks whether a word can possibly be found in the grid.
+     * Words of a single letter are never reported by a search, so they are not admitted either.
+     * @param word The word to check
+     * @return true if the grid holds enough of every letter of the word, else false
+     */
+    public boolean admits(CharSequence word){
+        int length = word.length();
+        if(length < 2 || length > maxLength){
+            return false;
+        }
+
+        // take the letters of the word out of the histogram, then put back the ones that were taken
+        int taken = 0;
+        boolean admitted = true;
+        while(taken < length){
+            char letter = word.charAt(taken);
+            if(letter >= counts.length || counts[letter]==0){
+                admitted = false;
+                break;
+            }
+            counts[letter]--;
+            taken++;
+        }
+        for(int i=0;i<taken;i++){
+            counts[word.charAt(i)]++;
+        }
+        return admitted;
+    }
+
+    /**
+     * Builds a dictionary of the words of the list that can possibly be found in the grid.
+     * @param wordList List of words for dictionary
+     * @return A new CompiledDictionary holding only the admitted words
+     */
+    public CompiledDictionary compile(List<String> wordList){
+        Trie trie = new Trie();
+        for(String word: wordList){
+            if(admits(word)){
+                trie.addWord(word);
+            }
+        }
+        return CompiledDictionary.of(trie);
+    }
+
+    /**
+     * Builds a dictionary of the words of a shared dictionary that can possibly be found in the grid.
+     * Only the branches of the shared dictionary that start with letters of the grid are walked,
+     * and a branch is left as soon as it needs more copies of a letter than the grid holds.
+     * @param dictionary The shared dictionary
+     * @return A new CompiledDictionary holding only the admitted words
+     */
+    public CompiledDictionary prune(CompiledDictionary dictionary){
+        int[] codes = new int[letters.length];
+        int[] remaining = new int[letters.length];
+        for(int i=0;i<letters.length;i++){
+            codes[i] = dictionary.codeOf(letters[i]);
+            remaining[i] = counts[letters[i]];
+        }
+
+        Trie trie = new Trie();
+        char[] word = new char[Math.min(maxLength, dictionary.getMaxWordLength())];
+        collect(dictionary, Trie.ROOT, 0, codes, remaining, word, trie);
+        return CompiledDictionary.of(trie);
+    }
+
+    /**
+     * Adds the words below a state of the shared dictionary that fit in the remaining letters of the grid.
+     */
+    private void collect(CompiledDictionary dictionary, int state, int depth, int[] codes, int[] remaining, char[] word, Trie trie){
+        if(depth >= 2 && dictionary.isWord(state)){
+            trie.addWord(new String(word, 0, depth));
+        }
+        if(depth==word.length || !dictionary.hasChildren(state)){
+            return;
+        }
+        for(int i=0;i<letters.length;i++){
+            if(remaining[i]==0){
+                continue;
+            }
+            int next = dictionary.child(state, codes[i]);
+            if(next==Trie.NO_STATE){
+                continue;
+            }
+            remaining[i]--;
+            word[depth] = letters[i];
+            collect(dictionary, next, depth+1, codes, remaining, word, trie);
+            remaining[i]++;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package pkg;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates puzzle grids that score at least a target number of points against a dictionary.
+ *
+ * Every thread of the pool runs its own simulated annealing: starting from random letters, it replaces
+ * or swaps letters one at a time, keeps every change that raises the score and some that lower it while
+ * the temperature is high, and starts over with new letters whenever it reaches the target or stops improving.
+ * Candidates are scored by a search that only counts the words found, reusing the same board and
+ * search engine for every change, so no objects are created while the grid is being improved.
+ *
+ * The points of a word depend on its length, as in BoardScore. By default every word is worth one point, so the target is a number of words.
+ */
+public class BoardGenerator {
+    // Number of changes without a better score after which a thread starts over with new letters.
+    private static final int MAX_STALE_STEPS = 2000;
+    // Factor by which the temperature drops after every change.
+    private static final double COOLING = 0.999;
+
+    // The dictionary shared by all threads.
+    private final CompiledDictionary dictionary;
+    // Number of columns of the generated grids.
+    private final int width;
+    // Number of rows of the generated grids.
+    private final int height;
+    // Distribution the letters of the grids are drawn from.
+    private final LetterDistribution letters;
+    // Points of a word by its length. Words longer than the table get the points of the last entry.
+    private final int[] pointsByLength;
+
+    /**
+     * Creates a generator whose scores count words.
+     * @param dictionary The shared dictionary
+     * @param width Number of columns of the generated grids
+     * @param height Number of rows of the generated grids
+     * @param letters Distribution the letters of the grids are drawn from
+     */
+    public BoardGenerator(CompiledDictionary dictionary, int width, int height, LetterDistribution letters) {
+        this(dictionary, width, height, letters, BoardScore.WORD_COUNT);
+    }
+
+    /**
+     * @param dictionary The shared dictionary
+     * @param width Number of columns of the generated grids
+     * @param height Number of rows of the generated grids
+     * @param letters Distribution the letters of the grids are drawn from
+     * @param pointsByLength Points of a word by its length. Words longer than the table get the points of the last entry
+     */
+    public BoardGenerator(CompiledDictionary dictionary, int width, int height, LetterDistribution letters, int[] pointsByLength) {
+        if(width <= 0 || height <= 0){
+            throw new IllegalArgumentException("Grids need at least one row and one column");
+        }
+        if(pointsByLength.length==0){
+            throw new IllegalArgumentException("At least one length needs points");
+        }
+        this.dictionary = dictionary;
+        this.width = width;
+        this.height = height;
+        this.letters = letters;
+        this.pointsByLength = pointsByLength.clone();
+    }
+
+    /**
+     * Generates grids until enough have been found or the time budget is used up.
+     * @param count Number of grids wanted
+     * @param minScore Points each grid must score at least
+     * @param budgetMillis Time allowed for the generation in milliseconds
+     * @param pool The ForkJoinPool whose threads run the annealing, one run per thread
+     * @param seed Seed of the random generators
+     * @return The grids found, which may be fewer than requested if the time ran out
+     */
+    public Result generate(int count, int minScore, long budgetMillis, ForkJoinPool pool, long seed){
+        long startTime = System.nanoTime();
+        long deadline = startTime + budgetMillis * 1_000_000L;
+        ConcurrentLinkedQueue<Scored> found = new ConcurrentLinkedQueue<>();
+        AtomicInteger remaining = new AtomicInteger(count);
+        AtomicLong candidates = new AtomicLong();
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for(int i=0;i<pool.getParallelism();i++){
+            SplittableRandom random = seeds.split();
+            tasks.add(pool.submit(() -> new Annealer(random).run(minScore, deadline, remaining, found, candidates)));
+        }
+        for(ForkJoinTask<?> task: tasks){
+            task.join();
+        }
+
+        List<List<String>> boards = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        for(Scored scored: found){
+            if(boards.size()==count){
+                break;
+            }
+            boards.add(scored.rows);
+            scores.add(scored.score);
+        }
+        return new Result(boards, scores, candidates.get(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Scores the puzzle grid given as rows.
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @return Points of all distinct words found in the grid
+     */
+    public int score(List<String> puzzleGrid){
+        Board board = Board.of(puzzleGrid);
+        Annealer annealer = new Annealer(new SplittableRandom(), board);
+        return annealer.score();
+    }
+
+    /**
+     * A grid generated with its score.
+     */
+    private static final class Scored {
+        // Rows of the grid from top to bottom.
+        final List<String> rows;
+        // Points of the grid.
+        final int score;
+
+        Scored(List<String> rows, int score) {
+            this.rows = rows;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Simulated annealing run by one thread, over a board and search engine of its own.
+     */
+    private final class Annealer {
+        // Random generator of the thread.
+        private final SplittableRandom random;
+        // The grid being improved.
+        private final Board board;
+        // Search engine over the board, reused for every candidate.
+        private final SearchEngine engine;
+        // Counts the points of the words found by the current search.
+        private final ScoreCounter counter;
+
+        Annealer(SplittableRandom random) {
+            this(random, new Board(width, height, new char[width*height]));
+        }
+
+        Annealer(SplittableRandom random, Board board) {
+            this.random = random;
+            this.board = board;
+            this.engine = new SearchEngine(dictionary, board, dictionary.getCapacity() <= 16L * board.size());
+            this.counter = new ScoreCounter(pointsByLength, dictionary.getMaxWordLength());
+        }
+
+        /**
+         * Improves random grids and collects those that reach the minimum score, until enough grids
+         * have been collected by all threads or the deadline has passed.
+         */
+        void run(int minScore, long deadline, AtomicInteger remaining, ConcurrentLinkedQueue<Scored> found, AtomicLong candidates){
+            int cells = board.size();
+            long evaluated = 0;
+            while(remaining.get() > 0 && System.nanoTime() < deadline){
+                for(int cell=0;cell<cells;cell++){
+                    engine.setLetter(cell, letters.next(random));
+                }
+                int score = score();
+                evaluated++;
+                int bestScore = score;
+                int staleSteps = 0;
+                // start hot enough to accept losing a few percent of the target
+                double temperature = Math.max(1, minScore / 20.0);
+
+                while(score < minScore && staleSteps < MAX_STALE_STEPS){
+                    // look at the clock and the other threads only now and then
+                    if((evaluated & 63)==0 && (remaining.get() <= 0 || System.nanoTime() >= deadline)){
+                        break;
+                    }
+                    int first = random.nextInt(cells);
+                    int second = random.nextInt(cells);
+                    char firstLetter = board.letter(first);
+                    char secondLetter = board.letter(second);
+                    // either swap two letters or draw a new letter
+                    boolean swap = cells > 1 && random.nextBoolean();
+                    if(swap){
+                        engine.setLetter(first, secondLetter);
+                        engine.setLetter(second, firstLetter);
+                    } else {
+                        engine.setLetter(first, letters.next(random));
+                    }
+
+                    int newScore = score();
+                    evaluated++;
+                    if(newScore >= score || random.nextDouble() < Math.exp((newScore - score) / temperature)){
+                        score = newScore;
+                    } else if(swap){
+                        engine.setLetter(first, firstLetter);
+                        engine.setLetter(second, secondLetter);
+                    } else {
+                        engine.setLetter(first, firstLetter);
+                    }
+
+                    if(score > bestScore){
+                        bestScore = score;
+                        staleSteps = 0;
+                    } else {
+                        staleSteps++;
+                    }
+                    temperature *= COOLING;
+                }
+
+                if(score >= minScore && remaining.getAndDecrement() > 0){
+                    found.add(new Scored(rows(), score));
+                }
+            }
+            candidates.addAndGet(evaluated);
+        }
+
+        /**
+         * @return Points of all distinct words found in the board
+         */
+        int score(){
+            counter.reset();
+            engine.clearFound();
+            engine.solve(counter);
+            return (int) Math.min(Integer.MAX_VALUE, counter.score);
+        }
+
+        /**
+         * @return Rows of the board from top to bottom
+         */
+        private List<String> rows(){
+            List<String> rows = new ArrayList<>(height);
+            for(int row=0;row<height;row++){
+                char[] characters = new char[width];
+                for(int column=0;column<width;column++){
+                    characters[column] = board.letter(column*height + (height-1-row));
+                }
+                rows.add(new String(characters));
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Grids generated by one call of generate(), with statistics of the run.
+     */
+    public static final class Result {
+        // Rows of each grid from top to bottom.
+        private final List<List<String>> boards;
+        // Points scored by each grid.
+        private final List<Integer> scores;
+        // Number of candidate grids scored by all threads.
+        private final long candidates;
+        // Time taken by the generation in nanoseconds.
+        private final long elapsedNanos;
+
+        Result(List<List<String>> boards, List<Integer> scores, long candidates, long elapsedNanos) {
+            this.boards = boards;
+            this.scores = scores;
+            this.candidates = candidates;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return Rows of each grid found, from top to bottom
+         */
+        public List<List<String>> getBoards(){
+            return boards;
+        }
+
+        /**
+         * @return Points scored by each grid, in the same order as getBoards()
+         */
+        public List<Integer> getScores(){
+            return scores;
+        }
+
+        /**
+         * @return Number of candidate grids scored by all threads
+         */
+        public long getCandidates(){
+            return candidates;
+        }
+
+        /**
+         * @return Time taken by the generation in nanoseconds
+         */
+        public long getElapsedNanos(){
+            return elapsedNanos;
+        }
+
+        /**
+         * @return Grids found per second of the generation
+         */
+        public double getBoardsPerSecond(){
+            return elapsedNanos==0 ? 0 : boards.size() * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return Candidate grids scored per second of the generation, by all threads together
+         */
+        public double getCandidatesPerSecond(){
+            return elapsedNanos==0 ? 0 : candidates * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * Generates grids and prints them separated by empty lines, in the format read by SolverServer.
+     * @param args Path of the dictionary word list or snapshot, width, height, number of grids, minimum number of words and time budget in seconds
+     */
+    public static void main(String[] args) {
+        if(args.length < 6){
+            System.out.println("Usage: pkg.BoardGenerator {path to dictionary text file or snapshot} {width} {height} {count} {minimum words} {seconds}");
+            return;
+        }
+        try{
+            CompiledDictionary dictionary;
+            if(DictionarySnapshot.isSnapshot(Paths.get(args[0]))){
+                dictionary = DictionarySnapshot.load(Paths.get(args[0]));
+            } else {
+                try(BufferedReader stream = new BufferedReader(new FileReader(args[0]))){
+                    Boggle boggle = new Boggle();
+                    if(!boggle.getDictionary(stream)){
+                        System.out.println("Error while reading dictionary");
+                        return;
+                    }
+                    dictionary = boggle.compileDictionary();
+                }
+            }
+
+            BoardGenerator generator = new BoardGenerator(dictionary, Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                    LetterDistribution.english());
+            Result result = generator.generate(Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+                    Long.parseLong(args[5]) * 1000, ForkJoinPool.commonPool(), System.nanoTime());
+            for(int i=0;i<result.getBoards().size();i++){
+                for(String row: result.getBoards().get(i)){
+                    System.out.println(row);
+                }
+                System.out.println();
+            }
+            System.err.println(result.getBoards().size() + " grids, " + String.format("%.1f", result.getBoardsPerSecond())
+                    + " grids/s, " + String.format("%.0f", result.getCandidatesPerSecond()) + " candidates/s");
+        } catch (FileNotFoundException fne){
+            System.out.println("File Not Found for scanning Dictionary!");
+        } catch (IOException ioException){
+            ioException.printStackTrace();
+        }
+    }
+}
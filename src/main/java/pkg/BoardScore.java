@@ -0,0 +1,94 @@
+package pkg;
+
+import java.util.BitSet;
+
+/**
+ * Defines the number of words in a puzzle grid and their total score, without the words themselves.
+ *
+ * The points of a word depend on its length, and are given as a table indexed by length.
+ * Words longer than the table get the points of its last entry.
+ */
+public final class BoardScore {
+    // One point for every word, so that scores count words.
+    public static final int[] WORD_COUNT = {0, 0, 1};
+    // Points of the classic game: 1 for 3 and 4 letters, 2 for 5, 3 for 6, 5 for 7 and 11 for 8 or more letters.
+    public static final int[] BOGGLE_POINTS = {0, 0, 0, 1, 1, 2, 3, 5, 11};
+
+    // Number of distinct words found.
+    private final int wordCount;
+    // Total points of the words found.
+    private final long score;
+    // Number of words found of each length.
+    private final int[] countsByLength;
+    // Dictionary states of the words found, or null if they were not kept.
+    private final BitSet foundWords;
+
+    BoardScore(int wordCount, long score, int[] countsByLength, BitSet foundWords) {
+        this.wordCount = wordCount;
+        this.score = score;
+        this.countsByLength = countsByLength;
+        this.foundWords = foundWords;
+    }
+
+    /**
+     * @return Number of distinct words found
+     */
+    public int getWordCount(){
+        return wordCount;
+    }
+
+    /**
+     * @return Total points of the words found
+     */
+    public long getScore(){
+        return score;
+    }
+
+    /**
+     * @param length A word length
+     * @return Number of words found with the given length
+     */
+    public int getCount(int length){
+        return length < countsByLength.length ? countsByLength[length] : 0;
+    }
+
+    /**
+     * @return true if the dictionary states of the words found were kept
+     */
+    public boolean hasFoundWords(){
+        return foundWords!=null;
+    }
+
+    /**
+     * @return A copy of the set of dictionary states at which the words found end, or null if they were not kept
+     */
+    public BitSet getFoundWords(){
+        return foundWords==null ? null : (BitSet) foundWords.clone();
+    }
+
+    /**
+     * @param state A dictionary state, as returned by CompiledDictionary.child()
+     * @return true if the word ending at the state was found
+     * @throws IllegalStateException If the found words were not kept
+     */
+    public boolean isFound(int state){
+        if(foundWords==null){
+            throw new IllegalStateException("The found words were not kept");
+        }
+        return foundWords.get(state);
+    }
+
+    /**
+     * @param pointsByLength Points of a word by its length
+     * @param length Length of a word
+     * @return The points of the word
+     */
+    static int points(int[] pointsByLength, int length){
+        return pointsByLength[Math.min(length, pointsByLength.length-1)];
+    }
+
+    @Override
+    public String toString(){
+        return "words=" + wordCount + " score=" + score;
+    }
+}
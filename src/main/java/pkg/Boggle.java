@@ -2,7 +2,10 @@ package pkg;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Class that defines the data and methods to solve a Boggle puzzle
@@ -11,15 +14,18 @@ public class Boggle {
     // List of words to be stored in the dictionary
     List<String> wordList = new ArrayList<>();
 
-    // Matrix of characters that stores the puzzle grid
-    List<List<Character>> puzzleGrid = new ArrayList<>();
+    // Rows of the puzzle grid from top to bottom, each stored as a compact string rather than a list of boxed characters
+    List<String> puzzleGrid = new ArrayList<>();
 
-    // A reference to the Trie object that will store the dictionary
-    Trie trie;
+    // The compiled dictionary used for solving, built from wordList when it is first needed
+    CompiledDictionary dictionary;
 
     // variable to check the status of the puzzle
     boolean isPuzzleReady = false;
 
+    // Rule that decides which letters of the puzzle grid are neighbours, the eight letters around each letter by default
+    Topology topology = Topology.EIGHT_WAY;
+
     // Constants that define the direction of search in the puzzle grid
     public static final char UP = 'U';
     public static final char DOWN = 'D';
@@ -31,6 +37,19 @@ public class Boggle {
     public static final char WEST = 'W';
     public static final char SOURCE = 'X';
 
+    public Boggle() {
+    }
+
+    /**
+     * Creates a Boggle instance that solves puzzles against an already compiled dictionary,
+     * so the dictionary can be shared by many instances without being built again.
+     * Reading words with getDictionary() replaces it with a dictionary of the words read.
+     * @param dictionary The compiled dictionary to use
+     */
+    public Boggle(CompiledDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
     /**
      * Method that reads lines from a BufferedReader stream and stores the words to be used in the dictionary
      * @param stream The BufferedReader instance used for reading the words line by line
@@ -53,8 +72,9 @@ public class Boggle {
                 if(word.length() == 1){
                     return false;
                 }
-                // add word to list of words
+                // add word to list of words, the dictionary has to be compiled again
                 wordList.add(word);
+                dictionary = null;
             }
         } catch (IOException ioException){ // catch all I/O exceptions
             ioException.printStackTrace();
@@ -65,6 +85,23 @@ public class Boggle {
         return true;
     }
 
+    /**
+     * Reads large word lists with all threads of the common ForkJoinPool, straight into a compiled dictionary
+     * that replaces any words read before. The same rules apply as for getDictionary(BufferedReader),
+     * but the words are never held in wordList.
+     * @param files Paths of the word lists
+     * @return true if all words are read for dictionary, else false
+     */
+    boolean getDictionary(List<Path> files){
+        try{
+            dictionary = new DictionaryIngest(false, ForkJoinPool.commonPool()).compile(files);
+            wordList.clear();
+        } catch (IOException ioException){
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Method that reads lines from a BufferedReader stream and creates a puzzle grid
      * @param stream The BufferedReader instance used for reading the puzzle grid rows line-by-line
@@ -86,19 +123,15 @@ public class Boggle {
                 // block that compares the length of 2 successive rows
                 if(puzzleGrid.size()>0){
                     // get previous row in the grid
-                    List<Character> previousRow = puzzleGrid.get(puzzleGrid.size()-1);
+                    String previousRow = puzzleGrid.get(puzzleGrid.size()-1);
                     // return false if any unequal length rows are encountered
-                    if(previousRow.size() != line.length()){
+                    if(previousRow.length() != line.length()){
                         return false;
                     }
                 }
 
                 // generate the puzzle grid
-                List<Character> characterList = new ArrayList<>();
-                for(char character: line.toCharArray()){
-                    characterList.add(character);
-                }
-                puzzleGrid.add(characterList);
+                puzzleGrid.add(line);
             }
         } catch (IOException ioException){
             return false;
@@ -118,228 +151,164 @@ public class Boggle {
         if(!isPuzzleReady){
             return null;
         }
-        int height = puzzleGrid.size();
 
-        int width;
-        if(height==0){
-            width=0;
-        } else {
-            width = puzzleGrid.get(0).size();
+        // search for the words starting at every letter of the grid using Depth-First Search approach
+        return new PuzzleSolver(compileDictionary(), Board.of(puzzleGrid, topology)).solve();
+    }
+
+    /**
+     * Same as solve(), but also counts the work done by the search, such as the dictionary states
+     * entered and the time spent on each start letter.
+     * @param metrics Receives the counters of the search
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    List<String> solve(SolveMetrics metrics){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
         }
 
-        // Stack that stores the coordinates of letters for DFS search
-        Stack<Coordinates> stack = new Stack<>();
-        // array that keeps track of visited letters in the grid
-        boolean[][] visitedNodes = new boolean[width+1][height+1];
-        // variable that stores the current substring or word found in dictionary
-        StringBuilder searchString = new StringBuilder();
-        // The list containing words found from puzzle, their start coordinates and directions
-        List<String> result = new ArrayList<>();
-        // Map that stores the words found as key and the string containing its start coordinates and directions, as value
-        Map<String, String> resultMap = new TreeMap<>();
-        // creating a new Trie instance for dictionary generation
-        trie = new Trie();
-
-        // generate the Trie dictionary
-        trie.generateDictionary(wordList);
-
-        // iterate over the entire grid to search for the words using Depth-First Search approach
-        for(int i=1;i<=width;i++){
-            for(int j=1;j<=height;j++){
-
-                // push the coordinates of starting letter in the stack and set it as source letter
-                stack.push(new Coordinates(i,j,SOURCE));
-                // store the starting coordinated for future use
-                Coordinates firstLetter = stack.peek();
-                // variable that stores the directions to the found word
-                StringBuilder pathResult = new StringBuilder();
-
-                // search depth wise through the neighbouring letters till stack is not empty
-                while(!stack.isEmpty()){
-                    Coordinates pair = stack.pop();
-                    int x = pair.getX();
-                    int y = pair.getY();
-                    char direction = pair.getDirection();
-
-                    // if letter goes out of the grid or is visited
-                    if(x<=0 || y<=0 || x>width || y>height || visitedNodes[x][y]){
-                        // if the letter is the last one from the neighbours then backtrack
-                        if((direction==NORTH)){
-                            // set last visited node as unvisited
-                            visitedNodes[++x][--y]=false;
-                            // update the search string
-                            if(searchString.length()>0) {
-                                searchString.deleteCharAt(searchString.length() - 1);
-                            }
-                            char lastLetterPath = 0;
-                            // update the current path
-                            if(pathResult.length()>0){
-                                lastLetterPath=pathResult.charAt(pathResult.length()-1);
-                                // get the direction of the removed letter
-                                pathResult.deleteCharAt(pathResult.length()-1);
-                            }
-                            x=x+1;
-                            y=y-1;
-                            // backtrack if the current letter has reached end of neighbour list
-                            while(!(x<=0 || y<=0 || x>width || y>height) && visitedNodes[x][y] && pathResult.length()>0 && lastLetterPath==NORTH){
-                                if(searchString.length()>0){
-                                    searchString.deleteCharAt(searchString.length()-1);
-                                }
-                                lastLetterPath=pathResult.charAt(pathResult.length()-1);
-                                pathResult.deleteCharAt(pathResult.length()-1);
-                                visitedNodes[x][y]=false;
-                                x=x+1;
-                                y=y-1;
-                            }
-                        }
-                        continue;
-                    }
-                    // get actual indices of the grid matrix
-                    int row = (height-y);
-                    int column = (x-1);
-
-                    // add letter to search string
-                    searchString.append(puzzleGrid.get(row).get(column));
-
-                    // set letter as visited
-                    visitedNodes[x][y]=true;
-
-                    if(searchString.length()<=1){ // for 1-character string, check its neighbours
-                        pushNeighboursToStack(stack,x,y);
-                    } else {
-                        // search the string in the Trie
-                        int searchResult = trie.search(searchString.toString());
-
-                        switch (searchResult){
-                            // if word is found at leaf of Trie
-                            case Trie.RETURN_IS_WORD:
-                                pathResult.append(direction);
-
-                                // add string to map only if it is not already found
-                                if(!resultMap.containsKey(searchString.toString())){
-                                    resultMap.put(searchString.toString(), "\t" + firstLetter.getX()+"\t"+firstLetter.getY()+"\t"+pathResult);
-                                }
-
-                                // update search and path string
-                                searchString.deleteCharAt(searchString.length()-1);
-                                if(pathResult.length()>0){
-                                    pathResult.deleteCharAt(pathResult.length()-1);
-                                }
-                                visitedNodes[x][y]=false;
-
-                                // If the current letter does not have unvisited neighbours,
-                                // then pop elements from stack till we reach a letter that has unvisited neighbours.
-                                // Also, delete letters from the path and search string accordingly and jump to next iteration of stack.
-                                if(direction==NORTH){
-                                    if(searchString.length()>0){
-                                        searchString.deleteCharAt(searchString.length()-1);
-                                    }
-                                    visitedNodes[++x][--y]=false;
-                                    char lastLetterPath = 0;
-                                    if(pathResult.length()>0){
-                                        lastLetterPath=pathResult.charAt(pathResult.length()-1);
-                                        pathResult.deleteCharAt(pathResult.length()-1);
-                                    }
-                                    x=x+1;
-                                    y=y-1;
-                                    while(!(x<=0 || y<=0 || x>width || y>height) && visitedNodes[x][y] && pathResult.length()>0 && lastLetterPath==NORTH){
-                                        if(searchString.length()>0){
-                                            searchString.deleteCharAt(searchString.length()-1);
-                                        }
-                                        lastLetterPath=pathResult.charAt(pathResult.length()-1);
-                                        pathResult.deleteCharAt(pathResult.length()-1);
-                                        visitedNodes[x][y]=false;
-                                        x=x+1;
-                                        y=y-1;
-                                    }
-                                }
-                                continue;
-
-                            // if string is substring of a word
-                            case Trie.RETURN_IS_SUBSTRING:
-                                pathResult.append(direction);
-                                pushNeighboursToStack(stack,x,y);
-                                continue;
-
-                            // if string is a word as well as substring of another word
-                            case Trie.RETURN_IS_WORD_SUBSTRING:
-                                pathResult.append(direction);
-
-                                if(!resultMap.containsKey(searchString.toString())){
-                                    resultMap.put(searchString.toString(), "\t" + firstLetter.getX()+"\t"+firstLetter.getY()+"\t"+pathResult);
-                                }
-                                pushNeighboursToStack(stack,x,y);
-                                continue;
-
-                            // if string is not found in the Trie
-                            default:
-                                searchString.deleteCharAt(searchString.length()-1);
-                                visitedNodes[x][y]=false;
-
-                                // If this is the last neighbour,
-                                // then pop elements from stack till we reach a letter that has unvisited neighbours.
-                                // Also, delete letters from the path and search string accordingly and jump to next iteration of stack.
-                                if(direction==NORTH){
-                                    if(searchString.length()>0){
-                                        searchString.deleteCharAt(searchString.length()-1);
-                                    }
-                                    visitedNodes[++x][--y]=false;
-                                    char lastLetterPath = 0;
-                                    if(pathResult.length()>0){
-                                        lastLetterPath=pathResult.charAt(pathResult.length()-1);
-                                        pathResult.deleteCharAt(pathResult.length()-1);
-                                    }
-                                    x=x+1;
-                                    y=y-1;
-                                    while(!(x<=0 || y<=0 || x>width || y>height) && visitedNodes[x][y] && pathResult.length()>0 && lastLetterPath==NORTH){
-                                        if(searchString.length()>0){
-                                            searchString.deleteCharAt(searchString.length()-1);
-                                        }
-                                        lastLetterPath=pathResult.charAt(pathResult.length()-1);
-                                        pathResult.deleteCharAt(pathResult.length()-1);
-                                        visitedNodes[x][y]=false;
-                                        x=x+1;
-                                        y=y-1;
-                                    }
-                                }
-                                break;
-                        }
-                    }
-                }
+        return new PuzzleSolver(compileDictionary(), Board.of(puzzleGrid, topology)).solve(metrics);
+    }
 
-                // reset search and path strings
-                searchString.setLength(0);
-                pathResult.setLength(0);
+    /**
+     * Same as solve(), but returns the cached result if the same grid has already been solved with the same dictionary.
+     * @param cache The cache to look up and store the result in
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    List<String> solve(SolveCache cache){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
+        }
 
-                // set all letters as unvisited for next iteration
-                visitedNodes = new boolean[width+1][height+1];
-            }
+        return cache.solve(compileDictionary(), puzzleGrid, topology);
+    }
+
+    /**
+     * Solves the puzzle grid in a way that can be updated cheaply when letters of the grid are replaced or swapped.
+     * @return An IncrementalSolver holding the solution, or null if the puzzle is not ready
+     */
+    IncrementalSolver solveIncremental(){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
         }
 
-        // form a list of words with path information from the sorted TreeMap
-        for(Map.Entry<String, String> pair: resultMap.entrySet()){
-            result.add(pair.getKey() + pair.getValue());
+        return new IncrementalSolver(compileDictionary(), puzzleGrid, topology);
+    }
+
+    /**
+     * Counts the words in the puzzle grid and adds up their points, without building the words or their paths.
+     * @param pointsByLength Points of a word by its length, such as BoardScore.BOGGLE_POINTS
+     * @return The number of words found and their score, or null if the puzzle is not ready
+     */
+    BoardScore score(int[] pointsByLength){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
         }
 
-        return result;
+        return new PuzzleSolver(compileDictionary(), Board.of(puzzleGrid, topology)).score(pointsByLength);
     }
 
     /**
-     * For a letter located at the given x and y coordinates,
-     * pushes its neighbouring letters in grid in all directions to the given stack.
-     * @param stack Provided stack to store the neighbours
-     * @param x X coordinate of the letter
-     * @param y Y coordinate of the letter
+     * Same as solve(), but first drops the words that need letters the grid does not have, or more
+     * copies of a letter than the grid holds, and searches a dictionary built from the remaining words only.
+     * Faster than solve() when a dictionary is only used for a single puzzle.
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
      */
-    public void pushNeighboursToStack(Stack<Coordinates> stack, int x, int y){
-        stack.push(new Coordinates(x-1,y+1,NORTH)); // N
-        stack.push(new Coordinates(x-1, y,LEFT)); // L
-        stack.push(new Coordinates(x-1, y-1,WEST)); // W
-        stack.push(new Coordinates(x, y-1,DOWN)); // D
-        stack.push(new Coordinates(x+1, y-1,SOUTH)); // S
-        stack.push(new Coordinates(x+1,y,RIGHT)); // R
-        stack.push(new Coordinates(x+1,y+1,EAST)); // E
-        stack.push(new Coordinates(x,y+1,UP)); // U
+    List<String> solvePruned(){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
+        }
+
+        Board board = Board.of(puzzleGrid, topology);
+        BoardFilter filter = BoardFilter.of(board);
+        // prune the word list before building anything, unless a shared dictionary was given instead of words
+        CompiledDictionary prunedDictionary = dictionary!=null && wordList.isEmpty()
+                ? filter.prune(dictionary)
+                : filter.compile(wordList);
+        return new PuzzleSolver(prunedDictionary, board).solve();
+    }
+
+    /**
+     * Same as solve(), but searches the start letters of the grid in parallel on the common ForkJoinPool.
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    List<String> solveParallel(){
+        return solveParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as solve(), but splits the start letters of the grid across the threads of the given pool.
+     * The result is identical to that of solve(), including the path reported for each word.
+     * @param pool The ForkJoinPool used to run the search
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    List<String> solveParallel(ForkJoinPool pool){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
+        }
+
+        return new PuzzleSolver(compileDictionary(), Board.of(puzzleGrid, topology)).solveParallel(pool);
+    }
+
+    /**
+     * Same as solve(), but searches the grid in tiles on the common ForkJoinPool.
+     * Meant for very large grids, whose neighbour table would not fit in memory at once.
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    List<String> solveTiled(){
+        return solveTiled(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as solve(), but searches the grid in tiles on the given pool.
+     * The result is identical to that of solve(), including the path reported for each word.
+     * @param pool The ForkJoinPool used to run the search
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    List<String> solveTiled(ForkJoinPool pool){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return null;
+        }
+
+        // a grid whose edges wrap around cannot be cut into tiles, so it is searched whole
+        if(topology.wrapsAround()){
+            return new PuzzleSolver(compileDictionary(), Board.of(puzzleGrid, topology)).solveParallel(pool);
+        }
+        return new TiledSolver(compileDictionary(), puzzleGrid, 0, topology).solve(pool);
+    }
+
+    /**
+     * Same as solve(), but passes each word to the consumer as soon as it is found instead of
+     * returning all words at the end. Words are passed in the order they are found.
+     * @param consumer Receives each found word with its start coordinates and directions
+     * @return true if the puzzle was solved, false if the puzzle is not ready
+     */
+    boolean solve(Consumer<? super WordHit> consumer){
+        // condition that checks if puzzle is ready
+        if(!isPuzzleReady){
+            return false;
+        }
+
+        new PuzzleSolver(compileDictionary(), Board.of(puzzleGrid, topology)).stream(consumer);
+        return true;
+    }
+
+    /**
+     * Compiles the words read for the dictionary, unless they have already been compiled.
+     * @return The compiled dictionary
+     */
+    CompiledDictionary compileDictionary(){
+        if(dictionary==null){
+            dictionary = CompiledDictionary.compile(wordList);
+        }
+        return dictionary;
     }
 
     /**
@@ -352,10 +321,8 @@ public class Boggle {
         }
         StringBuilder result = new StringBuilder();
 
-        for(List<Character> charList:puzzleGrid){
-            for(Character letter: charList){
-                result.append(letter);
-            }
+        for(String row:puzzleGrid){
+            result.append(row);
             result.append("\n");
         }
         return result.toString();
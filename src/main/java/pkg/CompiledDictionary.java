@@ -0,0 +1,173 @@
+package pkg;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static pkg.Trie.*;
+
+/**
+ * Defines an immutable dictionary compiled from a Trie.
+ *
+ * The states of the dictionary are laid out in the same double-array as the Trie, but are never
+ * modified once compiled. A single instance can therefore be shared by any number of threads and
+ * used to solve many puzzles concurrently without building the dictionary again.
+ *
+ * Dictionaries compiled from a word list keep their arrays on the heap. Dictionaries loaded with
+ * DictionarySnapshot.load() read the same layout directly from a memory-mapped file.
+ */
+public abstract class CompiledDictionary {
+    // Source of the version numbers given to dictionaries.
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    // Number identifying this dictionary, different for every dictionary compiled or loaded in this process.
+    private final long version = VERSIONS.incrementAndGet();
+    // Number of distinct words in the dictionary.
+    private final int wordCount;
+    // Length of the longest word in the dictionary.
+    private final int maxWordLength;
+    // Search engines over this dictionary that are not in use, reused by SearchEngine.acquire(). Guarded by itself.
+    final ArrayDeque<SearchEngine> idleEngines = new ArrayDeque<>();
+
+    CompiledDictionary(int wordCount, int maxWordLength) {
+        this.wordCount = wordCount;
+        this.maxWordLength = maxWordLength;
+    }
+
+    /**
+     * Builds a Trie from the provided list of words and compiles it.
+     * @param wordList List of words for dictionary
+     * @return A new CompiledDictionary instance
+     */
+    public static CompiledDictionary compile(List<String> wordList){
+        Trie trie = new Trie();
+        trie.generateDictionary(wordList);
+        return of(trie);
+    }
+
+    /**
+     * Compiles the current contents of a Trie. Later changes to the Trie are not seen by the dictionary.
+     * @param trie The Trie to compile
+     * @return A new CompiledDictionary instance
+     */
+    public static CompiledDictionary of(Trie trie){
+        return new HeapDictionary(trie);
+    }
+
+    /**
+     * Searches the dictionary for the supplied word.
+     * @param word
+     * @return Returns any of the RETURN_* constants of the Trie class.
+     */
+    public int search(String word){
+        int current = ROOT;
+        for(int i=0;i<word.length();i++){
+            current = child(current, codeOf(word.charAt(i)));
+            if(current==NO_STATE){
+                return RETURN_IS_LEAF;
+            }
+        }
+        return state(current);
+    }
+
+    /**
+     * Same as search(), but also counts the letters followed and the outcome of the lookup into the given metrics.
+     * @param word
+     * @param metrics Receives the counters of the lookup
+     * @return Returns any of the RETURN_* constants of the Trie class.
+     */
+    public int search(String word, SolveMetrics metrics){
+        int current = ROOT;
+        for(int i=0;i<word.length();i++){
+            current = child(current, codeOf(word.charAt(i)));
+            if(current==NO_STATE){
+                metrics.lookup(RETURN_IS_LEAF);
+                return RETURN_IS_LEAF;
+            }
+            metrics.expand(i+1);
+        }
+        int result = state(current);
+        metrics.lookup(result);
+        return result;
+    }
+
+    /**
+     * Classifies a state in the same way as search() classifies a string.
+     * @param state A state index returned by child()
+     * @return Returns any of the RETURN_* constants of the Trie class
+     */
+    public int state(int state){
+        if(isWord(state)){
+            return hasChildren(state) ? RETURN_IS_WORD_SUBSTRING : RETURN_IS_WORD;
+        }
+        return hasChildren(state) ? RETURN_IS_SUBSTRING : RETURN_IS_LEAF;
+    }
+
+    /**
+     * Returns the alphabet code of a character.
+     * @param letter Character to look up
+     * @return The code of the letter, or 0 if no word in the dictionary contains it
+     */
+    public abstract int codeOf(char letter);
+
+    /**
+     * Follows the edge labelled with the given alphabet code.
+     * @param state State to move from
+     * @param code Alphabet code of the next letter, as returned by codeOf()
+     * @return The child state, or NO_STATE if there is no such edge
+     */
+    public abstract int child(int state, int code);
+
+    /**
+     * @param state A state index
+     * @return true if a word ends at the given state
+     */
+    public abstract boolean isWord(int state);
+
+    /**
+     * @param state A state index
+     * @return true if at least one longer word continues from the given state
+     */
+    public abstract boolean hasChildren(int state);
+
+    /**
+     * @param state A state index
+     * @return Number of words that end at the given state or at any state below it
+     */
+    public abstract int wordsBelow(int state);
+
+    /**
+     * @return Upper bound of the state indices, usable as the size of an array indexed by state
+     */
+    public abstract int getCapacity();
+
+    /**
+     * Writes the dictionary in the binary format read by DictionarySnapshot.load().
+     * @param channel Channel to write to
+     * @throws IOException If the channel cannot be written
+     */
+    abstract void writeTo(WritableByteChannel channel) throws IOException;
+
+    /**
+     * @return Number of distinct words in the dictionary
+     */
+    public int getWordCount(){
+        return wordCount;
+    }
+
+    /**
+     * @return Number identifying this dictionary, used to tell cached results of different dictionaries apart
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    /**
+     * @return Length of the longest word in the dictionary
+     */
+    public int getMaxWordLength(){
+        return maxWordLength;
+    }
+}
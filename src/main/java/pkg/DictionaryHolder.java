@@ -0,0 +1,206 @@
+package pkg;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current CompiledDictionary and replaces it while puzzles are being solved.
+ *
+ * Updated dictionaries are built in the background and published with a single atomic reference swap.
+ * Readers only read that reference, so they never lock or wait for an update. A solve keeps using the
+ * dictionary it started with until it finishes, and solves started after the swap see the new dictionary.
+ *
+ * Updates are applied one after the other in the order they are requested, each one on top of the
+ * words left by the previous one. If an update fails, the current dictionary is kept.
+ *
+ * A delta file lists one change per line: "+word" adds a word, "-word" removes a word, and a word
+ * without a sign is added. As with a word list, an empty line ends the file.
+ */
+public class DictionaryHolder {
+    // The dictionary used by new solves.
+    private final AtomicReference<CompiledDictionary> current;
+    // Executor that builds the updated dictionaries.
+    private final Executor executor;
+    // Executor created by this holder, shut down by close(). null if the executor was supplied.
+    private final ExecutorService ownExecutor;
+
+    // Words of the latest dictionary built, or null if they are not known. Only used by updates, one at a time.
+    private LinkedHashSet<String> words;
+    // The last update requested, which the next update waits for.
+    private CompletableFuture<CompiledDictionary> lastUpdate;
+
+    /**
+     * Compiles a word list and holds it, building updates on a background thread.
+     * @param wordList List of words for dictionary
+     */
+    public DictionaryHolder(List<String> wordList) {
+        this(CompiledDictionary.compile(wordList), wordList, null);
+    }
+
+    /**
+     * Holds an already compiled dictionary whose words are not known, such as a loaded snapshot.
+     * Such a holder can be given a new word list, but delta updates fail until it has one.
+     * @param dictionary The dictionary to hold
+     */
+    public DictionaryHolder(CompiledDictionary dictionary) {
+        this(dictionary, null, null);
+    }
+
+    /**
+     * @param dictionary The dictionary to hold
+     * @param wordList The words of the dictionary, or null if they are not known
+     * @param executor Executor that builds the updated dictionaries, or null to use a background thread of the holder
+     */
+    public DictionaryHolder(CompiledDictionary dictionary, List<String> wordList, Executor executor) {
+        this.current = new AtomicReference<>(dictionary);
+        this.words = wordList==null ? null : new LinkedHashSet<>(wordList);
+        this.ownExecutor = executor==null ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dictionary-update");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.executor = executor==null ? ownExecutor : executor;
+        this.lastUpdate = CompletableFuture.completedFuture(dictionary);
+    }
+
+    /**
+     * Returns the current dictionary without locking.
+     * @return The dictionary to use for a new solve
+     */
+    public CompiledDictionary get(){
+        return current.get();
+    }
+
+    /**
+     * Replaces all words of the dictionary.
+     * @param wordList The new list of words
+     * @return A future completed with the new dictionary once it is published
+     */
+    public CompletableFuture<CompiledDictionary> replace(List<String> wordList){
+        List<String> copy = new ArrayList<>(wordList);
+        return update(() -> new LinkedHashSet<>(copy));
+    }
+
+    /**
+     * Adds and removes words of the dictionary.
+     * @param added Words to add
+     * @param removed Words to remove
+     * @return A future completed with the new dictionary once it is published
+     */
+    public CompletableFuture<CompiledDictionary> update(Collection<String> added, Collection<String> removed){
+        List<String> addedCopy = new ArrayList<>(added);
+        List<String> removedCopy = new ArrayList<>(removed);
+        return update(() -> {
+            LinkedHashSet<String> updated = knownWords();
+            updated.removeAll(removedCopy);
+            updated.addAll(addedCopy);
+            return updated;
+        });
+    }
+
+    /**
+     * Replaces all words of the dictionary with the words of a word list file, read in the background.
+     * @param wordListFile Path of the word list, in the format read by Boggle.getDictionary()
+     * @return A future completed with the new dictionary once it is published
+     */
+    public CompletableFuture<CompiledDictionary> reload(Path wordListFile){
+        return update(() -> {
+            try(BufferedReader stream = Files.newBufferedReader(wordListFile, StandardCharsets.UTF_8)){
+                Boggle boggle = new Boggle();
+                if(!boggle.getDictionary(stream)){
+                    throw new IllegalArgumentException("Error while reading dictionary: " + wordListFile);
+                }
+                return new LinkedHashSet<>(boggle.wordList);
+            } catch (IOException ioException){
+                throw new UncheckedIOException(ioException);
+            }
+        });
+    }
+
+    /**
+     * Applies the changes listed in a delta file, read in the background.
+     * @param deltaFile Path of the delta file
+     * @return A future completed with the new dictionary once it is published
+     */
+    public CompletableFuture<CompiledDictionary> applyDelta(Path deltaFile){
+        return update(() -> {
+            LinkedHashSet<String> updated = knownWords();
+            try(BufferedReader stream = Files.newBufferedReader(deltaFile, StandardCharsets.UTF_8)){
+                String line;
+                while((line=stream.readLine())!=null && !line.isEmpty()){
+                    boolean remove = line.charAt(0)=='-';
+                    String word = remove || line.charAt(0)=='+' ? line.substring(1) : line;
+                    // reject the delta as a whole, as Boggle.getDictionary() rejects a word list with 1-character words
+                    if(word.length() < 2){
+                        throw new IllegalArgumentException("Invalid word in dictionary delta: " + line);
+                    }
+                    if(remove){
+                        updated.remove(word);
+                    } else {
+                        updated.add(word);
+                    }
+                }
+            } catch (IOException ioException){
+                throw new UncheckedIOException(ioException);
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Stops the background thread of the holder, if it has one. Pending updates are still applied.
+     */
+    public void close(){
+        if(ownExecutor!=null){
+            ownExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Queues an update after the previous one, then compiles and publishes the words it produces.
+     * @param change Produces the new set of words. Runs on the executor, after all previous updates
+     * @return A future completed with the new dictionary once it is published
+     */
+    private synchronized CompletableFuture<CompiledDictionary> update(WordChange change){
+        // a failed update must not stop the ones queued after it
+        lastUpdate = lastUpdate.handle((previous, failure) -> null).thenApplyAsync(ignored -> {
+            LinkedHashSet<String> updated = change.apply();
+            CompiledDictionary dictionary = CompiledDictionary.compile(new ArrayList<>(updated));
+            words = updated;
+            current.set(dictionary);
+            return dictionary;
+        }, executor);
+        return lastUpdate;
+    }
+
+    /**
+     * @return A copy of the words of the latest dictionary, to be changed by an update
+     * @throws IllegalStateException If the words of the dictionary are not known
+     */
+    private LinkedHashSet<String> knownWords(){
+        if(words==null){
+            throw new IllegalStateException("The words of the dictionary are not known, replace() or reload() it first");
+        }
+        return new LinkedHashSet<>(words);
+    }
+
+    /**
+     * Produces the words of an updated dictionary.
+     */
+    private interface WordChange {
+        LinkedHashSet<String> apply();
+    }
+}
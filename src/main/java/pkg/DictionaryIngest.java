@@ -0,0 +1,328 @@
+package pkg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads large word lists into a Trie, using all threads of a ForkJoinPool.
+ *
+ * Each file is memory-mapped and cut into chunks that are scanned in parallel, first for the end of
+ * the word list and then for the words themselves. Words are decoded as UTF-8 and optionally converted
+ * to lower case, but no string is kept for them: a chunk only records the position and length of each
+ * word in the mapped file, grouped by first letter. A Trie is then built for every first letter in
+ * parallel, all with the same alphabet codes, decoding the words from the file again. Each Trie drops
+ * duplicate words, and the tries are joined with Trie.merge().
+ *
+ * The heap therefore holds two ints per word instead of the words themselves, and the positions of a
+ * chunk are let go as soon as its words are in a Trie. The words are not streamed one at a time:
+ * while the tries are merged, the merged arrays and the arrays of the tries not copied yet are all held.
+ *
+ * The rules of Boggle.getDictionary() apply to every file: an empty line ends the word list, and a
+ * word of a single character makes the whole dictionary invalid. Lines may end with "\n" or "\r\n".
+ */
+public final class DictionaryIngest {
+    // Number of bytes scanned by one task.
+    static final int CHUNK_BYTES = 1 << 20;
+
+    // Whether words are converted to lower case.
+    private final boolean lowerCase;
+    // Pool whose threads read the files and build the tries.
+    private final ForkJoinPool pool;
+
+    /**
+     * @param lowerCase true to convert every word to lower case, so that words differing only in case are stored once
+     * @param pool Pool whose threads read the files and build the tries
+     */
+    public DictionaryIngest(boolean lowerCase, ForkJoinPool pool) {
+        this.lowerCase = lowerCase;
+        this.pool = pool;
+    }
+
+    /**
+     * Reads word lists into a new Trie.
+     * @param files Paths of the word lists, each in the format read by Boggle.getDictionary()
+     * @return A Trie holding the distinct words of all files
+     * @throws IOException If a file cannot be read, or contains a word of a single character
+     */
+    public Trie read(List<Path> files) throws IOException {
+        List<MappedByteBuffer> buffers = new ArrayList<>();
+        for(Path file: files){
+            try(FileChannel channel = FileChannel.open(file, READ)){
+                if(channel.size() > Integer.MAX_VALUE){
+                    throw new IOException("Word list too large to be mapped: " + file);
+                }
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        // the word list of each file ends at its first empty line
+        List<ForkJoinTask<Integer>> endTasks = new ArrayList<>();
+        for(MappedByteBuffer buffer: buffers){
+            for(int start=0;start<buffer.capacity();start+=CHUNK_BYTES){
+                int from = start;
+                int to = (int) Math.min(buffer.capacity(), (long) start + CHUNK_BYTES);
+                endTasks.add(pool.submit(() -> findEmptyLine(buffer, from, to)));
+            }
+        }
+        int[] ends = new int[buffers.size()];
+        int task = 0;
+        for(int file=0;file<buffers.size();file++){
+            ends[file] = buffers.get(file).capacity();
+            for(int start=0;start<buffers.get(file).capacity();start+=CHUNK_BYTES){
+                int emptyLine = endTasks.get(task++).join();
+                if(emptyLine >= 0){
+                    ends[file] = Math.min(ends[file], emptyLine);
+                }
+            }
+        }
+
+        List<ForkJoinTask<Chunk>> chunkTasks = new ArrayList<>();
+        List<Path> chunkFiles = new ArrayList<>();
+        for(int file=0;file<buffers.size();file++){
+            MappedByteBuffer buffer = buffers.get(file);
+            int end = ends[file];
+            for(int start=0;start<end;start+=CHUNK_BYTES){
+                int from = start;
+                int to = (int) Math.min(end, (long) start + CHUNK_BYTES);
+                chunkTasks.add(pool.submit(() -> readWords(buffer, from, to, end)));
+                chunkFiles.add(files.get(file));
+            }
+        }
+
+        // gather the positions of the words by first letter, letting go of each chunk once it is gathered
+        Map<Character, List<Positions>> shards = new TreeMap<>();
+        BitSet alphabet = new BitSet();
+        for(int i=0;i<chunkTasks.size();i++){
+            Chunk chunk = chunkTasks.set(i, null).join();
+            if(chunk.hasSingleLetterWord){
+                throw new IOException("Error while reading dictionary, 1-character word in " + chunkFiles.get(i));
+            }
+            for(Map.Entry<Character, Positions> pair: chunk.wordsByFirstLetter.entrySet()){
+                shards.computeIfAbsent(pair.getKey(), letter -> new ArrayList<>()).add(pair.getValue());
+            }
+            alphabet.or(chunk.letters);
+        }
+
+        char[] letters = new char[alphabet.cardinality()];
+        int count = 0;
+        for(int letter=alphabet.nextSetBit(0);letter>=0;letter=alphabet.nextSetBit(letter+1)){
+            letters[count++] = (char) letter;
+        }
+
+        List<ForkJoinTask<Trie>> trieTasks = new ArrayList<>();
+        for(List<Positions> shard: shards.values()){
+            trieTasks.add(pool.submit(() -> buildTrie(letters, shard)));
+        }
+        shards.clear();
+        List<Trie> tries = new ArrayList<>();
+        for(int i=0;i<trieTasks.size();i++){
+            tries.add(trieTasks.set(i, null).join());
+        }
+        return Trie.merge(letters, tries);
+    }
+
+    /**
+     * Reads word lists into a new CompiledDictionary.
+     * @param files Paths of the word lists, each in the format read by Boggle.getDictionary()
+     * @return A dictionary of the distinct words of all files
+     * @throws IOException If a file cannot be read, or contains a word of a single character
+     */
+    public CompiledDictionary compile(List<Path> files) throws IOException {
+        return CompiledDictionary.of(read(files));
+    }
+
+    /**
+     * Finds the first empty line that starts within a range of a file.
+     * @return Position of the empty line, or -1 if no empty line starts in the range
+     */
+    static int findEmptyLine(ByteBuffer buffer, int from, int to){
+        for(int position=from;position<to;position++){
+            if(position > 0 && buffer.get(position-1)!='\n'){
+                continue;
+            }
+            byte first = buffer.get(position);
+            if(first=='\n' || first=='\r' && position+1 < buffer.capacity() && buffer.get(position+1)=='\n'){
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the words of the lines that start within a range of a file.
+     * @param buffer The mapped file
+     * @param from First position of the range
+     * @param to Position after the range. The last line may continue after it
+     * @param end Position at which the word list ends
+     */
+    private Chunk readWords(ByteBuffer buffer, int from, int to, int end){
+        Chunk chunk = new Chunk();
+        WordDecoder decoder = new WordDecoder(lowerCase);
+        int position = from;
+        // a line that started in the previous range belongs to the previous chunk
+        if(position > 0 && buffer.get(position-1)!='\n'){
+            while(position < to && buffer.get(position)!='\n'){
+                position++;
+            }
+            position++;
+        }
+
+        while(position < to){
+            int start = position;
+            while(position < end && buffer.get(position)!='\n'){
+                position++;
+            }
+            int length = position - start;
+            position++;
+            if(length > 0 && buffer.get(start+length-1)=='\r'){
+                length--;
+            }
+            if(length==0){
+                continue;
+            }
+
+            CharSequence word = decoder.decode(buffer, start, length);
+            if(word.length()==1){
+                chunk.hasSingleLetterWord = true;
+                continue;
+            }
+            chunk.wordsByFirstLetter.computeIfAbsent(word.charAt(0), letter -> new Positions(buffer)).add(start, length);
+            for(int i=0;i<word.length();i++){
+                chunk.letters.set(word.charAt(i));
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Builds the Trie of the words sharing a first letter, decoding them again from the mapped files. The Trie drops
+     * duplicate words, and the positions of each chunk are let go as soon as its words are added.
+     * @param alphabet The alphabet shared by all tries
+     * @param shard Positions of the words, in the order of the files; every element is set to null
+     */
+    private Trie buildTrie(char[] alphabet, List<Positions> shard){
+        Trie trie = new Trie(alphabet);
+        WordDecoder decoder = new WordDecoder(lowerCase);
+        for(int i=0;i<shard.size();i++){
+            Positions positions = shard.set(i, null);
+            for(int word=0;word<positions.size;word+=2){
+                trie.addWord(decoder.decode(positions.buffer, positions.values[word], positions.values[word+1]));
+            }
+        }
+        // the spare room of the arrays would otherwise be held until the trie is merged
+        trie.trimToSize();
+        return trie;
+    }
+
+    /**
+     * Decodes words of a mapped file into a reusable buffer, so that no string is created for them.
+     */
+    private static final class WordDecoder {
+        // Whether words are converted to lower case.
+        private final boolean lowerCase;
+        // Decodes UTF-8, replacing invalid bytes as new String() does.
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // Letters of the last word decoded.
+        private CharBuffer chars = CharBuffer.allocate(64);
+        // The file the last word was decoded from, and a view of it whose position and limit select a word.
+        private ByteBuffer file;
+        private ByteBuffer view;
+
+        WordDecoder(boolean lowerCase) {
+            this.lowerCase = lowerCase;
+        }
+
+        /**
+         * @param buffer The mapped file
+         * @param start Position of the first byte of the word
+         * @param length Number of bytes of the word
+         * @return The letters of the word, valid until the next call
+         */
+        CharSequence decode(ByteBuffer buffer, int start, int length){
+            if(buffer!=file){
+                file = buffer;
+                view = buffer.duplicate();
+            }
+            view.limit(start + length).position(start);
+            // UTF-8 never decodes to more characters than bytes
+            if(chars.capacity() < length){
+                chars = CharBuffer.allocate(length);
+            }
+            chars.clear();
+            decoder.reset();
+            decoder.decode(view, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            if(!lowerCase){
+                return chars;
+            }
+            for(int i=0;i<chars.length();i++){
+                char letter = chars.charAt(i);
+                if(letter >= 0x80){
+                    // letters beyond ASCII may change length or depend on their neighbours in lower case
+                    return chars.toString().toLowerCase(Locale.ROOT);
+                }
+                if(letter >= 'A' && letter <= 'Z'){
+                    chars.put(i, (char) (letter + ('a' - 'A')));
+                }
+            }
+            return chars;
+        }
+    }
+
+    /**
+     * Positions in a mapped file of the words of one chunk that share a first letter.
+     */
+    private static final class Positions {
+        // The mapped file holding the words.
+        final ByteBuffer buffer;
+        // Position and number of bytes of every word, one pair after the other.
+        int[] values = new int[64];
+        // Number of ints used in values[].
+        int size;
+
+        Positions(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void add(int start, int length){
+            if(size==values.length){
+                values = Arrays.copyOf(values, size*2);
+            }
+            values[size++] = start;
+            values[size++] = length;
+        }
+    }
+
+    /**
+     * Words found in one range of a file.
+     */
+    private static final class Chunk {
+        // Positions of the words by their first letter.
+        final Map<Character, Positions> wordsByFirstLetter = new HashMap<>();
+        // Characters used by the words.
+        final BitSet letters = new BitSet();
+        // Whether a word of a single character was read.
+        boolean hasSingleLetterWord;
+    }
+}
@@ -0,0 +1,251 @@
+package pkg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Reads and writes compiled dictionaries as binary snapshot files.
+ *
+ * A snapshot stores the double-array of a CompiledDictionary as it is laid out in memory, so it can
+ * be memory-mapped and searched in place instead of parsing a word list and building a Trie on every start.
+ * All values are stored in big-endian order:
+ *
+ *   int magic            'B' 'G' 'L' 'T'
+ *   int version          VERSION
+ *   int wordCount        number of distinct words
+ *   int maxWordLength    length of the longest word
+ *   int codeCount        entries in the codes table, rounded up to an even number
+ *   int capacity         entries in the base and check tables
+ *   int[codeCount]       alphabet code of every character
+ *   int[capacity]        base table
+ *   int[capacity]        check table
+ *   long[(capacity+63)/64] bitset of the states at which a word ends
+ *   int[capacity]        number of words ending at or below each state (since version 2)
+ *
+ * Loading checks that the tables point only at slots inside them, so a corrupt file is rejected with an
+ * IOException instead of failing while a puzzle is solved. This reads the whole file once.
+ *
+ * The tool can be run as: java -cp boggle-solution-generator.jar pkg.DictionarySnapshot {word list} {snapshot file}
+ */
+public final class DictionarySnapshot {
+    // First four bytes of every snapshot file.
+    static final int MAGIC = ('B' << 24) | ('G' << 16) | ('L' << 8) | 'T';
+    // Version of the layout written by this class. Files of any other version are rejected.
+    static final int VERSION = 2;
+    // Size of the header in bytes.
+    static final int HEADER_BYTES = 6 * Integer.BYTES;
+
+    private DictionarySnapshot() {
+    }
+
+    /**
+     * Writes a compiled dictionary to a snapshot file, replacing the file if it exists.
+     * @param dictionary The dictionary to write
+     * @param file Path of the snapshot file
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(CompiledDictionary dictionary, Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, CREATE, TRUNCATE_EXISTING, WRITE)){
+            dictionary.writeTo(channel);
+        }
+    }
+
+    /**
+     * Maps a snapshot file into memory. The dictionary reads the file in place, and stays valid after this method returns.
+     * @param file Path of the snapshot file
+     * @return A CompiledDictionary backed by the mapped file
+     * @throws IOException If the file cannot be read or is not a snapshot of the current version
+     */
+    public static CompiledDictionary load(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try(FileChannel channel = FileChannel.open(file, READ)){
+            long size = channel.size();
+            if(size < HEADER_BYTES || size > Integer.MAX_VALUE){
+                throw new IOException("Not a dictionary snapshot: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if(buffer.getInt(0)!=MAGIC){
+            throw new IOException("Not a dictionary snapshot: " + file);
+        }
+        int version = buffer.getInt(4);
+        if(version!=VERSION){
+            throw new IOException("Unsupported dictionary snapshot version " + version + ": " + file);
+        }
+        int wordCount = buffer.getInt(8);
+        int maxWordLength = buffer.getInt(12);
+        int codeCount = buffer.getInt(16);
+        int capacity = buffer.getInt(20);
+
+        long expectedSize = size(codeCount, capacity);
+        if(wordCount < 0 || maxWordLength < 0 || codeCount < 0 || capacity <= 0 || expectedSize!=buffer.capacity()){
+            throw new IOException("Corrupt dictionary snapshot: " + file);
+        }
+
+        int offset = HEADER_BYTES;
+        IntBuffer codes = slice(buffer, offset, codeCount * Integer.BYTES).asIntBuffer();
+        offset += codeCount * Integer.BYTES;
+        IntBuffer base = slice(buffer, offset, capacity * Integer.BYTES).asIntBuffer();
+        offset += capacity * Integer.BYTES;
+        IntBuffer check = slice(buffer, offset, capacity * Integer.BYTES).asIntBuffer();
+        offset += capacity * Integer.BYTES;
+        LongBuffer words = slice(buffer, offset, wordBlocks(capacity) * Long.BYTES).asLongBuffer();
+        offset += wordBlocks(capacity) * Long.BYTES;
+        IntBuffer wordsBelow = slice(buffer, offset, capacity * Integer.BYTES).asIntBuffer();
+
+        if(!isValid(codes, base, check, wordsBelow, wordCount)){
+            throw new IOException("Corrupt dictionary snapshot: " + file);
+        }
+        return new MappedDictionary(wordCount, maxWordLength, codes, base, check, words, wordsBelow);
+    }
+
+    /**
+     * Checks that following any state of the tables stays inside them, as Trie lays them out: the check of a
+     * used slot holds its parent plus one, and the slot is the base of the parent plus the code of its letter.
+     * @return true if every code, base, child slot, parent and word count is in range, else false
+     */
+    private static boolean isValid(IntBuffer codes, IntBuffer base, IntBuffer check, IntBuffer wordsBelow, int wordCount){
+        int capacity = check.limit();
+        int maxCode = 0;
+        for(int i=0;i<codes.limit();i++){
+            int code = codes.get(i);
+            if(code < 0 || code >= capacity){
+                return false;
+            }
+            maxCode = Math.max(maxCode, code);
+        }
+        if(check.get(Trie.ROOT)!=-1){
+            return false;
+        }
+        for(int slot=0;slot<capacity;slot++){
+            int offset = base.get(slot);
+            int count = wordsBelow.get(slot);
+            if(offset < 0 || offset >= capacity || count < 0 || count > wordCount){
+                return false;
+            }
+            int parent = check.get(slot) - 1;
+            if(slot==Trie.ROOT || parent==Trie.NO_STATE){
+                continue;
+            }
+            if(parent < 0 || parent >= capacity){
+                return false;
+            }
+            // the slot has to be reachable from its parent with one of the codes
+            int code = slot - base.get(parent);
+            if(base.get(parent)==0 || code < 1 || code > maxCode){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a file starts with the header of a snapshot file.
+     * @param file Path of the file to check
+     * @return true if the file looks like a dictionary snapshot, else false
+     */
+    public static boolean isSnapshot(Path file){
+        try(FileChannel channel = FileChannel.open(file, READ)){
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            while(header.hasRemaining() && channel.read(header) >= 0){
+                // keep reading until the magic number is complete or the file ends
+            }
+            return !header.hasRemaining() && header.getInt(0)==MAGIC;
+        } catch (IOException ioException){
+            return false;
+        }
+    }
+
+    /**
+     * Writes the tables of a dictionary in the snapshot layout. The remaining elements of each buffer are written.
+     */
+    static void write(WritableByteChannel channel, int wordCount, int maxWordLength,
+                      IntBuffer codes, IntBuffer base, IntBuffer check, LongBuffer words,
+                      IntBuffer wordsBelow) throws IOException {
+        // keep the long bitset 8-byte aligned by padding the codes table to an even length
+        int codeCount = (codes.remaining() + 1) & ~1;
+        int capacity = check.remaining();
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size(codeCount, capacity));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(wordCount).putInt(maxWordLength).putInt(codeCount).putInt(capacity);
+        buffer.asIntBuffer().put(codes);
+        buffer.position(buffer.position() + codeCount * Integer.BYTES);
+        buffer.asIntBuffer().put(base);
+        buffer.position(buffer.position() + capacity * Integer.BYTES);
+        buffer.asIntBuffer().put(check);
+        buffer.position(buffer.position() + capacity * Integer.BYTES);
+        buffer.asLongBuffer().put(words);
+        buffer.position(buffer.position() + wordBlocks(capacity) * Long.BYTES);
+        buffer.asIntBuffer().put(wordsBelow);
+        buffer.position(buffer.capacity());
+
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @return Size in bytes of a snapshot with tables of the given sizes
+     */
+    private static long size(int codeCount, int capacity){
+        return HEADER_BYTES + (long) codeCount * Integer.BYTES + 3L * capacity * Integer.BYTES
+                + (long) wordBlocks(capacity) * Long.BYTES;
+    }
+
+    /**
+     * @return Number of longs in the bitset of words for the given number of slots
+     */
+    private static int wordBlocks(int capacity){
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * @return A view of the given range of bytes of a buffer
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length){
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset).limit(offset + length);
+        return view.slice();
+    }
+
+    /**
+     * Compiles a word list into a snapshot file.
+     * @param args Path of the word list, followed by the path of the snapshot file to write
+     */
+    public static void main(String[] args) {
+        if(args.length < 2){
+            System.out.println("Usage: pkg.DictionarySnapshot {path to dictionary text file} {path to snapshot file}");
+            return;
+        }
+        try{
+            if(!Files.isRegularFile(Paths.get(args[0]))){
+                System.out.println("File Not Found for scanning Dictionary!");
+                return;
+            }
+            // large word lists are read in parallel, without holding every word in a list first
+            Boggle boggle = new Boggle();
+            if(!boggle.getDictionary(Collections.singletonList(Paths.get(args[0])))){
+                System.out.println("Error while reading dictionary");
+                return;
+            }
+            CompiledDictionary dictionary = boggle.compileDictionary();
+            write(dictionary, Paths.get(args[1]));
+            System.out.println("Wrote " + dictionary.getWordCount() + " words to " + args[1]);
+        } catch (IOException ioException){
+            ioException.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package pkg;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import static pkg.Trie.*;
+
+/**
+ * A CompiledDictionary whose states are stored in arrays on the heap.
+ *
+ * The arrays of the Trie are copied and trimmed once, and never modified afterwards.
+ */
+final class HeapDictionary extends CompiledDictionary {
+    // Maps a character to its alphabet code. Code 0 means the character is not part of any word.
+    private final int[] codes;
+    // Offset added to a letter code to find the children of a state. 0 if the state has no children.
+    private final int[] base;
+    // Parent of a state plus one. 0 marks a free slot.
+    private final int[] check;
+    // Bitset of the states at which a word ends.
+    private final long[] words;
+    // Number of words ending at or below each state.
+    private final int[] wordsBelow;
+
+    HeapDictionary(Trie trie) {
+        super(trie.getWordCount(), trie.getMaxWordLength());
+
+        // drop the free slots the Trie keeps at the end of its arrays for future words
+        int capacity = trie.check.length;
+        while(capacity > 1 && trie.check[capacity-1]==0){
+            capacity--;
+        }
+
+        int maxLetter = trie.codes.length;
+        while(maxLetter > 0 && trie.codes[maxLetter-1]==0){
+            maxLetter--;
+        }
+
+        codes = Arrays.copyOf(trie.codes, maxLetter);
+        base = Arrays.copyOf(trie.base, capacity);
+        check = Arrays.copyOf(trie.check, capacity);
+        words = Arrays.copyOf(trie.words, (capacity + 63) >>> 6);
+
+        // count every word once at each state on its way up to the root
+        wordsBelow = new int[capacity];
+        for(int state=0;state<capacity;state++){
+            if(isWord(state)){
+                int current = state;
+                while(current!=ROOT){
+                    wordsBelow[current]++;
+                    current = check[current]-1;
+                }
+                wordsBelow[ROOT]++;
+            }
+        }
+    }
+
+    @Override
+    public int codeOf(char letter){
+        return letter < codes.length ? codes[letter] : 0;
+    }
+
+    @Override
+    public int child(int state, int code){
+        int offset = base[state];
+        if(offset==0 || code==0){
+            return NO_STATE;
+        }
+        int next = offset + code;
+        return next < check.length && check[next]==state+1 ? next : NO_STATE;
+    }
+
+    @Override
+    public boolean isWord(int state){
+        return (words[state >>> 6] & (1L << state)) != 0;
+    }
+
+    @Override
+    public boolean hasChildren(int state){
+        return base[state]!=0;
+    }
+
+    @Override
+    public int wordsBelow(int state){
+        return wordsBelow[state];
+    }
+
+    @Override
+    public int getCapacity(){
+        return check.length;
+    }
+
+    @Override
+    void writeTo(WritableByteChannel channel) throws IOException {
+        DictionarySnapshot.write(channel, getWordCount(), getMaxWordLength(),
+                IntBuffer.wrap(codes), IntBuffer.wrap(base), IntBuffer.wrap(check), LongBuffer.wrap(words), IntBuffer.wrap(wordsBelow));
+    }
+}
@@ -0,0 +1,213 @@
+package pkg;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the solution of a puzzle grid up to date while letters of the grid are replaced or swapped.
+ *
+ * The solver keeps, for every start letter, the words that can be formed from it with the first path
+ * found from that letter, and for every word the start letters it can be formed from. The reported path
+ * of a word is the one from its first start letter in x-then-y order, as in PuzzleSolver.solve().
+ *
+ * A path of the longest dictionary word never leaves the square of letters around its start letter
+ * that is maxWordLength-1 letters wide in every direction. When a letter changes, only the start
+ * letters within that distance of it are searched again, their old words are dropped and the new ones
+ * added, and the rest of the grid is not searched at all. On a Topology that wraps around, the
+ * distance is measured the short way around the grid. Between two start letters the engine only forgets
+ * the words of the previous one, so an update costs nothing per state of the dictionary.
+ *
+ * Not thread-safe.
+ */
+public class IncrementalSolver {
+    // Copy of the puzzle grid, updated as letters change.
+    private final Board board;
+    // Search engine over the board, reused for every start letter.
+    private final SearchEngine engine;
+    // Distance from a changed letter within which start letters have to be searched again.
+    private final int radius;
+
+    // Words that can be formed from each start letter, with their start coordinates and directions.
+    private final List<Map<String, String>> wordsByStart;
+    // Cell numbers of the start letters that each word can be formed from.
+    private final Map<String, TreeSet<Integer>> startsByWord = new HashMap<>();
+    // Words of the current solution, with the start coordinates and directions reported for them.
+    private final Map<String, String> resultMap = new TreeMap<>();
+
+    /**
+     * Solves the puzzle grid once, keeping what is needed to update the solution later.
+     * @param dictionary The shared dictionary
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     */
+    public IncrementalSolver(CompiledDictionary dictionary, List<String> puzzleGrid) {
+        this(dictionary, puzzleGrid, Topology.EIGHT_WAY);
+    }
+
+    /**
+     * Solves the puzzle grid once, keeping what is needed to update the solution later.
+     * @param dictionary The shared dictionary
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @param topology Rule that decides which letters of the grid are neighbours
+     */
+    public IncrementalSolver(CompiledDictionary dictionary, List<String> puzzleGrid, Topology topology) {
+        this.board = Board.of(puzzleGrid, topology);
+        this.engine = new SearchEngine(dictionary, board);
+        this.radius = Math.max(0, dictionary.getMaxWordLength()-1);
+
+        wordsByStart = new ArrayList<>(board.size());
+        Set<String> changed = new HashSet<>();
+        for(int cell=0;cell<board.size();cell++){
+            wordsByStart.add(new HashMap<>());
+            search(cell, changed);
+        }
+        updateResult(changed);
+    }
+
+    /**
+     * @return The current solution, formatted as returned by PuzzleSolver.solve()
+     */
+    public List<String> getResult(){
+        return PuzzleSolver.toResultList(resultMap);
+    }
+
+    /**
+     * @param x X coordinate of a letter
+     * @param y Y coordinate of a letter, counted from the bottom row
+     * @return The letter at the coordinates
+     */
+    public char getLetter(int x, int y){
+        return board.letter(cell(x, y));
+    }
+
+    /**
+     * Replaces one letter of the grid and updates the solution.
+     * @param x X coordinate of the letter
+     * @param y Y coordinate of the letter, counted from the bottom row
+     * @param letter The new letter
+     * @return Number of start letters that were searched again
+     */
+    public int update(int x, int y, char letter){
+        int cell = cell(x, y);
+        if(board.letter(cell)==letter){
+            return 0;
+        }
+        engine.setLetter(cell, letter);
+        return searchAround(cell, cell);
+    }
+
+    /**
+     * Swaps two letters of the grid and updates the solution.
+     * @param x1 X coordinate of the first letter
+     * @param y1 Y coordinate of the first letter, counted from the bottom row
+     * @param x2 X coordinate of the second letter
+     * @param y2 Y coordinate of the second letter, counted from the bottom row
+     * @return Number of start letters that were searched again
+     */
+    public int swap(int x1, int y1, int x2, int y2){
+        int first = cell(x1, y1);
+        int second = cell(x2, y2);
+        char firstLetter = board.letter(first);
+        char secondLetter = board.letter(second);
+        if(firstLetter==secondLetter){
+            return 0;
+        }
+        engine.setLetter(first, secondLetter);
+        engine.setLetter(second, firstLetter);
+        return searchAround(first, second);
+    }
+
+    /**
+     * @return The cell number of the coordinates
+     * @throws IndexOutOfBoundsException If the coordinates are outside the grid
+     */
+    private int cell(int x, int y){
+        if(x < 1 || y < 1 || x > board.getWidth() || y > board.getHeight()){
+            throw new IndexOutOfBoundsException("No letter at (" + x + ", " + y + ")");
+        }
+        return (x-1)*board.getHeight() + (y-1);
+    }
+
+    /**
+     * Searches again every start letter close enough to either of two changed letters to reach them.
+     * @param first Cell number of a changed letter
+     * @param second Cell number of a changed letter, may be the same as first
+     * @return Number of start letters searched
+     */
+    private int searchAround(int first, int second){
+        Set<String> changed = new HashSet<>();
+        int searched = 0;
+        for(int cell=0;cell<board.size();cell++){
+            if(isWithinRadius(cell, first) || isWithinRadius(cell, second)){
+                search(cell, changed);
+                searched++;
+            }
+        }
+        updateResult(changed);
+        return searched;
+    }
+
+    /**
+     * @return true if a path starting at the start cell can reach the other cell within the length of the longest word
+     */
+    private boolean isWithinRadius(int start, int cell){
+        return distance(board.x(start), board.x(cell), board.getWidth()) <= radius
+                && distance(board.y(start), board.y(cell), board.getHeight()) <= radius;
+    }
+
+    /**
+     * @return Number of moves between two coordinates along an axis of the given length
+     */
+    private int distance(int from, int to, int length){
+        int distance = Math.abs(from - to);
+        return board.getTopology().wrapsAround() ? Math.min(distance, length - distance) : distance;
+    }
+
+    /**
+     * Replaces the words of one start letter with the words found by searching from it again.
+     * @param start Cell number of the start letter
+     * @param changed Receives the words that were dropped or found
+     */
+    private void search(int start, Set<String> changed){
+        for(String word: wordsByStart.get(start).keySet()){
+            TreeSet<Integer> starts = startsByWord.get(word);
+            starts.remove(start);
+            if(starts.isEmpty()){
+                startsByWord.remove(word);
+            }
+            changed.add(word);
+        }
+
+        // every word has to be reported again for this start letter, even if other letters found it before,
+        // and clearing only resets the words reported from the previous start letter
+        Map<String, String> found = new HashMap<>();
+        engine.clearFound();
+        engine.solve(start, start+1, PuzzleSolver.collector(board, found));
+        wordsByStart.set(start, found);
+
+        for(String word: found.keySet()){
+            startsByWord.computeIfAbsent(word, key -> new TreeSet<>()).add(start);
+            changed.add(word);
+        }
+    }
+
+    /**
+     * Reports each changed word from the first start letter it can still be formed from, or drops it if there is none.
+     * @param changed The words whose start letters have changed
+     */
+    private void updateResult(Set<String> changed){
+        for(String word: changed){
+            TreeSet<Integer> starts = startsByWord.get(word);
+            if(starts==null){
+                resultMap.remove(word);
+            } else {
+                resultMap.put(word, wordsByStart.get(starts.first()).get(word));
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package pkg;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted choice of letters, used to fill generated puzzle grids.
+ *
+ * Immutable, so one instance can be shared by any number of threads, each drawing letters with its own random generator.
+ */
+public final class LetterDistribution {
+    // Letters of English text, in alphabetical order.
+    private static final String ENGLISH_LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    // Relative frequencies of the English letters in percent.
+    private static final double[] ENGLISH_WEIGHTS = {
+            8.2, 1.5, 2.8, 4.3, 12.7, 2.2, 2.0, 6.1, 7.0, 0.15, 0.77, 4.0, 2.4,
+            6.7, 7.5, 1.9, 0.095, 6.0, 6.3, 9.1, 2.8, 0.98, 2.4, 0.15, 2.0, 0.074};
+
+    // The letters that can be drawn.
+    private final char[] letters;
+    // Sum of the weights of each letter and all letters before it.
+    private final double[] cumulativeWeights;
+
+    private LetterDistribution(char[] letters, double[] cumulativeWeights) {
+        this.letters = letters;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    /**
+     * @param letters The letters that can be drawn, each with the same chance
+     * @return A new LetterDistribution instance
+     */
+    public static LetterDistribution uniform(String letters){
+        double[] weights = new double[letters.length()];
+        Arrays.fill(weights, 1);
+        return weighted(letters, weights);
+    }
+
+    /**
+     * @param letters The letters that can be drawn
+     * @param weights Relative chance of drawing each letter, at the same position as the letter
+     * @return A new LetterDistribution instance
+     * @throws IllegalArgumentException If the weights do not match the letters, or no letter can be drawn
+     */
+    public static LetterDistribution weighted(String letters, double[] weights){
+        if(letters.isEmpty() || letters.length()!=weights.length){
+            throw new IllegalArgumentException("Every letter needs exactly one weight");
+        }
+        double[] cumulativeWeights = new double[weights.length];
+        double total = 0;
+        for(int i=0;i<weights.length;i++){
+            if(weights[i] < 0){
+                throw new IllegalArgumentException("Negative weight for letter " + letters.charAt(i));
+            }
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if(total <= 0){
+            throw new IllegalArgumentException("No letter can be drawn");
+        }
+        return new LetterDistribution(letters.toCharArray(), cumulativeWeights);
+    }
+
+    /**
+     * @return The lower-case letters of the alphabet, weighted by their frequency in English text
+     */
+    public static LetterDistribution english(){
+        return weighted(ENGLISH_LETTERS, ENGLISH_WEIGHTS);
+    }
+
+    /**
+     * Draws a letter.
+     * @param random Random generator of the calling thread
+     * @return The letter drawn
+     */
+    public char next(SplittableRandom random){
+        double value = random.nextDouble() * cumulativeWeights[cumulativeWeights.length-1];
+        int index = Arrays.binarySearch(cumulativeWeights, value);
+        // a value between two sums belongs to the letter whose sum is above it
+        index = index < 0 ? -index-1 : index+1;
+        return letters[Math.min(index, letters.length-1)];
+    }
+
+    /**
+     * @return Number of distinct letters that can be drawn, including those with no weight
+     */
+    public int size(){
+        return letters.length;
+    }
+}
@@ -0,0 +1,76 @@
+package pkg;
+
+import java.util.Arrays;
+
+/**
+ * Defines the cells of a Board grouped by their letter, so that the cells holding a given letter
+ * can be visited without scanning the whole grid.
+ *
+ * The index is a snapshot of the letters at the time it is built. Letters replaced in the board
+ * afterwards are not seen, so the index must be built again after such changes.
+ */
+final class LetterIndex {
+    // Distinct letters of the board, in ascending order.
+    final char[] letters;
+    // Position in cells[] of the first cell of each letter. Has one extra entry marking the end of the table.
+    final int[] cellStart;
+    // Cell numbers grouped by letter, in the order of letters[], and ascending within each letter.
+    final int[] cells;
+
+    /**
+     * @param board The board whose cells are indexed
+     */
+    LetterIndex(Board board) {
+        // count the cells of each character, in a table as long as the largest character of the board
+        char maxLetter = 0;
+        for(char letter: board.letters){
+            maxLetter = (char) Math.max(maxLetter, letter);
+        }
+        int[] countOf = new int[maxLetter+1];
+        for(char letter: board.letters){
+            countOf[letter]++;
+        }
+        int distinct = 0;
+        for(int letter=0;letter<=maxLetter;letter++){
+            if(countOf[letter] > 0){
+                distinct++;
+            }
+        }
+
+        // place the cells of every letter after those of the letters before it
+        letters = new char[distinct];
+        cellStart = new int[distinct+1];
+        int[] nextOf = countOf;
+        int index = 0;
+        for(int letter=0;letter<=maxLetter;letter++){
+            if(countOf[letter] > 0){
+                letters[index] = (char) letter;
+                cellStart[index+1] = cellStart[index] + countOf[letter];
+                nextOf[letter] = cellStart[index];
+                index++;
+            }
+        }
+        cells = new int[board.size()];
+        for(int cell=0;cell<board.size();cell++){
+            cells[nextOf[board.letters[cell]]++] = cell;
+        }
+    }
+
+    /**
+     * @param letter A letter
+     * @return Position of the letter in letters[], or -1 if no cell holds it
+     */
+    int indexOf(char letter){
+        int index = Arrays.binarySearch(letters, letter);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * @param letter A letter
+     * @return Number of cells holding the letter
+     */
+    int count(char letter){
+        int index = indexOf(letter);
+        return index < 0 ? 0 : cellStart[index+1] - cellStart[index];
+    }
+}
@@ -1,6 +1,7 @@
 package pkg;
 
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.List;
 
 public class Main {
@@ -9,12 +10,24 @@ public class Main {
 	// write your code here
         long startTime = System.nanoTime();
         try{
-            BufferedReader stream1 = new BufferedReader(new FileReader(args[0]));
-            Boggle boggle = new Boggle();
-            if(boggle.getDictionary(stream1)){
-                System.out.println("Words ready for puzzle-solving");
+            Boggle boggle;
+            if(DictionarySnapshot.isSnapshot(Paths.get(args[0]))){
+                // a compiled snapshot is mapped and searched in place instead of being parsed
+                try{
+                    boggle = new Boggle(DictionarySnapshot.load(Paths.get(args[0])));
+                    System.out.println("Words ready for puzzle-solving");
+                } catch (IOException ioException){
+                    System.out.println("Error while reading dictionary");
+                    boggle = new Boggle();
+                }
             } else {
-                System.out.println("Error while reading dictionary");
+                BufferedReader stream1 = new BufferedReader(new FileReader(args[0]));
+                boggle = new Boggle();
+                if(boggle.getDictionary(stream1)){
+                    System.out.println("Words ready for puzzle-solving");
+                } else {
+                    System.out.println("Error while reading dictionary");
+                }
             }
             try{
                 BufferedReader stream2 = new BufferedReader(new FileReader(args[1]));
@@ -27,7 +40,7 @@ public class Main {
             } catch (FileNotFoundException fne){
                 System.out.println("File Not Found for scanning Puzzle!");
             }
-            List<String> strList=boggle.solve();
+            List<String> strList=boggle.solvePruned();
             System.out.println(strList);
             System.out.println(strList.size());
         } catch (FileNotFoundException fne){
@@ -0,0 +1,86 @@
+package pkg;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static pkg.Trie.*;
+
+/**
+ * A CompiledDictionary that reads its states in place from a memory-mapped snapshot file.
+ *
+ * Nothing is copied onto the heap when the dictionary is loaded, and the pages of the file are
+ * shared through the page cache by every process that maps the same snapshot.
+ * Only absolute get() methods are used on the buffers, so they can be read from any number of threads.
+ */
+final class MappedDictionary extends CompiledDictionary {
+    // Maps a character to its alphabet code. Code 0 means the character is not part of any word.
+    private final IntBuffer codes;
+    // Offset added to a letter code to find the children of a state. 0 if the state has no children.
+    private final IntBuffer base;
+    // Parent of a state plus one. 0 marks a free slot.
+    private final IntBuffer check;
+    // Bitset of the states at which a word ends.
+    private final LongBuffer words;
+    // Number of words ending at or below each state.
+    private final IntBuffer wordsBelow;
+
+    // Number of characters covered by the codes buffer.
+    private final int codeLimit;
+    // Number of slots in the base and check buffers.
+    private final int capacity;
+
+    MappedDictionary(int wordCount, int maxWordLength, IntBuffer codes, IntBuffer base, IntBuffer check,
+                     LongBuffer words, IntBuffer wordsBelow) {
+        super(wordCount, maxWordLength);
+        this.codes = codes;
+        this.base = base;
+        this.check = check;
+        this.words = words;
+        this.wordsBelow = wordsBelow;
+        codeLimit = codes.limit();
+        capacity = check.limit();
+    }
+
+    @Override
+    public int codeOf(char letter){
+        return letter < codeLimit ? codes.get(letter) : 0;
+    }
+
+    @Override
+    public int child(int state, int code){
+        int offset = base.get(state);
+        if(offset==0 || code==0){
+            return NO_STATE;
+        }
+        int next = offset + code;
+        return next < capacity && check.get(next)==state+1 ? next : NO_STATE;
+    }
+
+    @Override
+    public boolean isWord(int state){
+        return (words.get(state >>> 6) & (1L << state)) != 0;
+    }
+
+    @Override
+    public boolean hasChildren(int state){
+        return base.get(state)!=0;
+    }
+
+    @Override
+    public int wordsBelow(int state){
+        return wordsBelow.get(state);
+    }
+
+    @Override
+    public int getCapacity(){
+        return capacity;
+    }
+
+    @Override
+    void writeTo(WritableByteChannel channel) throws IOException {
+        DictionarySnapshot.write(channel, getWordCount(), getMaxWordLength(),
+                codes.duplicate(), base.duplicate(), check.duplicate(), words.duplicate(), wordsBelow.duplicate());
+    }
+}
@@ -0,0 +1,79 @@
+package pkg;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task that searches a range of start letters of a Board.
+ *
+ * The range is split in halves until it is small enough, and each piece is searched by the
+ * SearchEngine of the thread running it, so that the visited letters and path buffers are never
+ * shared between threads.
+ * When two halves are merged, the words found from the lower half are kept, which means every
+ * word keeps the path found from the first start letter in x-then-y order, exactly as a
+ * sequential search would report it.
+ */
+class ParallelSearch extends RecursiveTask<Map<String, String>> {
+    private static final long serialVersionUID = 1L;
+
+    // The dictionary that the letters of the board are matched against.
+    private final CompiledDictionary dictionary;
+    // The puzzle grid being searched.
+    private final Board board;
+    // Whether the search stops entering branches of the dictionary whose words have all been found.
+    private final boolean pruneFoundWords;
+    // First cell number searched by this task, inclusive.
+    private final int fromCell;
+    // Last cell number searched by this task, exclusive.
+    private final int toCell;
+    // Largest number of start letters that is searched without splitting any further.
+    private final int threshold;
+
+    ParallelSearch(CompiledDictionary dictionary, Board board, boolean pruneFoundWords, int fromCell, int toCell, int threshold) {
+        this.dictionary = dictionary;
+        this.board = board;
+        this.pruneFoundWords = pruneFoundWords;
+        this.fromCell = fromCell;
+        this.toCell = toCell;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Chooses a split threshold that gives every thread of the pool a few pieces of the board,
+     * so that threads that finish early can steal work from the others.
+     * @param board The puzzle grid to be searched
+     * @param parallelism Number of threads that will search the board
+     * @return Largest number of start letters searched by one task
+     */
+    static int threshold(Board board, int parallelism){
+        return Math.max(1, board.size() / (parallelism*4));
+    }
+
+    @Override
+    protected Map<String, String> compute() {
+        if(toCell - fromCell <= threshold){
+            Map<String, String> resultMap = new HashMap<>();
+            SearchEngine engine = SearchEngine.acquire(dictionary, board, pruneFoundWords, null);
+            try{
+                engine.solve(fromCell, toCell, PuzzleSolver.collector(board, resultMap));
+            } finally {
+                engine.release();
+            }
+            return resultMap;
+        }
+
+        int middle = (fromCell + toCell) >>> 1;
+        ParallelSearch lower = new ParallelSearch(dictionary, board, pruneFoundWords, fromCell, middle, threshold);
+        ParallelSearch upper = new ParallelSearch(dictionary, board, pruneFoundWords, middle, toCell, threshold);
+        lower.fork();
+        Map<String, String> upperResult = upper.compute();
+        Map<String, String> lowerResult = lower.join();
+
+        // words found from the lower start letters were found first, so their paths take priority
+        for(Map.Entry<String, String> pair: upperResult.entrySet()){
+            lowerResult.putIfAbsent(pair.getKey(), pair.getValue());
+        }
+        return lowerResult;
+    }
+}
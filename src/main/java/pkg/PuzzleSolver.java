@@ -0,0 +1,214 @@
+package pkg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+/**
+ * Solves a single puzzle grid against a shared CompiledDictionary.
+ *
+ * A solver only holds references to the dictionary and the board, so it is cheap to create one
+ * per puzzle. Any number of solvers can use the same dictionary at the same time from different threads.
+ * The search tables sized by the dictionary are kept per thread and reused by every solve on that thread.
+ *
+ * solve(), score() and stream() let SearchPlanner choose between searching from every cell of the board
+ * and searching for every word of the dictionary, which is much cheaper when a few words are looked for
+ * in a large board. The words and paths reported are the same either way.
+ */
+public class PuzzleSolver {
+    // The dictionary shared by all puzzles.
+    private final CompiledDictionary dictionary;
+    // The puzzle grid to be solved.
+    private final Board board;
+    // Whether the search stops entering branches of the dictionary whose words have all been found.
+    private final boolean pruneFoundWords;
+
+    /**
+     * Creates a solver that enables found-word pruning when the dictionary is small compared to the board,
+     * which is when the same words are found again and again from different start letters.
+     * @param dictionary The shared dictionary
+     * @param board The puzzle grid to be solved
+     */
+    public PuzzleSolver(CompiledDictionary dictionary, Board board) {
+        this(dictionary, board, dictionary.getCapacity() <= 16L * board.size());
+    }
+
+    /**
+     * @param dictionary The shared dictionary
+     * @param board The puzzle grid to be solved
+     * @param pruneFoundWords true to stop entering branches of the dictionary whose words have all been found.
+     *                        The result is the same either way; pruning costs one counter per dictionary state.
+     */
+    public PuzzleSolver(CompiledDictionary dictionary, Board board, boolean pruneFoundWords) {
+        this.dictionary = dictionary;
+        this.board = board;
+        this.pruneFoundWords = pruneFoundWords;
+    }
+
+    /**
+     * Creates a solver that searches a per-board dictionary holding only the words of the shared
+     * dictionary that can possibly be found in the grid. Results are identical to those of a solver
+     * using the shared dictionary directly.
+     * @param dictionary The shared dictionary
+     * @param board The puzzle grid to be solved
+     * @return A new PuzzleSolver instance
+     */
+    public static PuzzleSolver pruned(CompiledDictionary dictionary, Board board){
+        return new PuzzleSolver(BoardFilter.of(board).prune(dictionary), board);
+    }
+
+    public CompiledDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Finds the words of the dictionary in the puzzle grid and their path information.
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    public List<String> solve(){
+        return solve(null);
+    }
+
+    /**
+     * Same as solve(), but also counts the work done by the search into the given metrics.
+     * A SolveEvent is committed for slow solves if a flight recording is running, in which case the counters
+     * are collected for the event even without a metrics object. Start letters are only timed when a metrics
+     * object is given and the board is searched cell by cell.
+     * @param metrics Receives the counters of the search, or null to not collect them
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    public List<String> solve(SolveMetrics metrics){
+        SolveEvent event = new SolveEvent();
+        SolveMetrics counters = metrics==null && event.isEnabled() ? new SolveMetrics(false) : metrics;
+
+        event.begin();
+        // Map that stores the words found as key and the string containing its start coordinates and directions, as value
+        Map<String, String> resultMap = new TreeMap<>();
+        SearchEngine engine = SearchEngine.acquire(dictionary, board, pruneFoundWords, counters);
+        try{
+            engine.solvePlanned(collector(board, resultMap));
+        } finally {
+            engine.release();
+        }
+        event.end();
+
+        if(counters!=null && event.shouldCommit()){
+            event.set(board, dictionary, counters);
+            event.commit();
+        }
+        return toResultList(resultMap);
+    }
+
+    /**
+     * Counts the words of the dictionary in the puzzle grid and adds up their points, without building
+     * the words, their coordinates or their paths.
+     * @param pointsByLength Points of a word by its length. Words longer than the table get the points of the last entry
+     * @return The number of words found and their score
+     */
+    public BoardScore score(int[] pointsByLength){
+        return score(pointsByLength, false);
+    }
+
+    /**
+     * Same as score(int[]), but can also keep the dictionary states of the words found.
+     * @param pointsByLength Points of a word by its length. Words longer than the table get the points of the last entry
+     * @param keepFoundWords true to keep the set of dictionary states of the words found
+     * @return The number of words found and their score
+     */
+    public BoardScore score(int[] pointsByLength, boolean keepFoundWords){
+        ScoreCounter counter = new ScoreCounter(pointsByLength, dictionary.getMaxWordLength());
+        SearchEngine engine = SearchEngine.acquire(dictionary, board, pruneFoundWords, null);
+        try{
+            engine.solvePlanned(counter);
+            return counter.toScore(keepFoundWords ? engine : null);
+        } finally {
+            engine.release();
+        }
+    }
+
+    /**
+     * Same as solve(), but splits the start letters of the grid across the threads of the given pool.
+     * The result is identical to that of solve(), including the path reported for each word.
+     * @param pool The ForkJoinPool used to run the search
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    public List<String> solveParallel(ForkJoinPool pool){
+        int threshold = ParallelSearch.threshold(board, pool.getParallelism());
+        Map<String, String> resultMap = pool.invoke(new ParallelSearch(dictionary, board, pruneFoundWords, 0, board.size(), threshold));
+        return toResultList(new TreeMap<>(resultMap));
+    }
+
+    /**
+     * Passes every word to the consumer as soon as it is found, instead of collecting all words first.
+     * Each word is passed once, with the same start coordinates and directions that solve() reports for it,
+     * in the order in which the words are found rather than in alphabetical order.
+     * @param consumer Receives each found word, on the calling thread
+     */
+    public void stream(Consumer<? super WordHit> consumer){
+        SearchEngine engine = SearchEngine.acquire(dictionary, board, pruneFoundWords, null);
+        try{
+            engine.solvePlanned(
+                    (state, startCell, word, path, length) -> consumer.accept(WordHit.of(board, startCell, word, path, length)));
+        } finally {
+            engine.release();
+        }
+    }
+
+    /**
+     * Returns a publisher that solves the puzzle for each subscriber and publishes the words as they are found,
+     * in the same order as stream(). The search runs on the given executor and blocks whenever the subscriber
+     * falls behind by more than Flow.defaultBufferSize() words. Words are delivered to the subscriber on
+     * the common ForkJoinPool.
+     * @param executor Executor that runs the search, one task per subscriber
+     * @return A publisher of the found words
+     */
+    public Flow.Publisher<WordHit> publisher(Executor executor){
+        return subscriber -> {
+            SubmissionPublisher<WordHit> publisher = new SubmissionPublisher<>();
+            publisher.subscribe(subscriber);
+            executor.execute(() -> {
+                try{
+                    stream(publisher::submit);
+                    publisher.close();
+                } catch (RuntimeException exception){
+                    publisher.closeExceptionally(exception);
+                }
+            });
+        };
+    }
+
+    /**
+     * Creates a listener that adds each found word to a map, with its path information formatted as returned by solve().
+     * @param board The puzzle grid being searched
+     * @param resultMap Map that stores the words found as key and the string containing its start coordinates and directions, as value
+     * @return The listener
+     */
+    static SearchEngine.Listener collector(Board board, Map<String, String> resultMap){
+        return (state, startCell, word, path, length) -> resultMap.put(new String(word, 0, length),
+                "\t" + board.x(startCell) + "\t" + board.y(startCell) + "\t" + new String(path, 0, length-1));
+    }
+
+    /**
+     * Forms a list of words with path information from a sorted map of found words.
+     * @param resultMap Map of the found words to their start coordinates and directions
+     * @return A list of strings each containing the found word, its start coordinates and the directions
+     */
+    static List<String> toResultList(Map<String, String> resultMap){
+        // The list containing words found from puzzle, their start coordinates and directions
+        List<String> result = new ArrayList<>();
+        for(Map.Entry<String, String> pair: resultMap.entrySet()){
+            result.add(pair.getKey() + pair.getValue());
+        }
+        return result;
+    }
+}
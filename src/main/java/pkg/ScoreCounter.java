@@ -0,0 +1,56 @@
+package pkg;
+
+import java.util.Arrays;
+
+/**
+ * Listener that counts the words found by a SearchEngine and adds up their points, without creating any objects.
+ *
+ * The same counter can be reused for many searches by calling reset() in between.
+ */
+final class ScoreCounter implements SearchEngine.Listener {
+    // Points of a word by its length.
+    private final int[] pointsByLength;
+    // Number of words found of each length.
+    private final int[] countsByLength;
+
+    // Number of distinct words found.
+    int wordCount;
+    // Total points of the words found.
+    long score;
+
+    /**
+     * @param pointsByLength Points of a word by its length. Words longer than the table get the points of the last entry
+     * @param maxWordLength Length of the longest word that can be found
+     */
+    ScoreCounter(int[] pointsByLength, int maxWordLength) {
+        if(pointsByLength.length==0){
+            throw new IllegalArgumentException("At least one length needs points");
+        }
+        this.pointsByLength = pointsByLength.clone();
+        this.countsByLength = new int[maxWordLength+1];
+    }
+
+    /**
+     * Clears the counts, to start a new search.
+     */
+    void reset(){
+        wordCount = 0;
+        score = 0;
+        Arrays.fill(countsByLength, 0);
+    }
+
+    @Override
+    public void wordFound(int state, int startCell, char[] word, char[] path, int length){
+        wordCount++;
+        score += BoardScore.points(pointsByLength, length);
+        countsByLength[length]++;
+    }
+
+    /**
+     * @param engine The engine that ran the search, whose found words are copied if it is not null
+     * @return The counts of the last search
+     */
+    BoardScore toScore(SearchEngine engine){
+        return new BoardScore(wordCount, score, countsByLength.clone(), engine==null ? null : engine.foundWords());
+    }
+}
@@ -0,0 +1,577 @@
+package pkg;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Depth-first search over a Board that follows a CompiledDictionary one letter at a time.
+ *
+ * The search recurses over the precomputed neighbour table of the board and keeps the letters
+ * and directions of the current path in reusable arrays. Visited letters are tracked in a single
+ * long for boards of up to 64 letters and in a reusable bitset for larger boards, so no objects
+ * are created while searching except for the strings of newly found words.
+ *
+ * Neighbours are tried in the same order as the original stack based search, so every word is
+ * reported with the same start coordinates and directions.
+ *
+ * When found-word pruning is enabled, the engine also counts the found words below every state of
+ * the path. Once all words below a state have been found, the search never enters that state again,
+ * which saves most of the work on large boards searched with small dictionaries.
+ *
+ * When a SolveMetrics instance is given, the engine also counts its work, and times every start letter
+ * unless the metrics were created without timings. Without one, the only cost is a null check per letter.
+ *
+ * The engine can also search word by word instead of cell by cell: solveByWords() walks the dictionary
+ * over the letters of the board and traces each word only from the cells holding its first letter.
+ * Start cells and neighbours are tried in the same order, so it reports the same paths as solve().
+ *
+ * The tables of an engine grow with the dictionary, so solvers borrow an unused engine of the dictionary
+ * with acquire() and give it back with release() instead of creating one per solve. The engine keeps the
+ * states it marked as found, and clearing them only resets those states. Unused engines are kept by
+ * their dictionary, not by the threads that used them, so they are dropped with a dictionary that is
+ * no longer used, such as one replaced in a DictionaryHolder.
+ */
+class SearchEngine {
+    // Largest number of unused engines kept by a dictionary, enough for one solve per processor.
+    private static final int MAX_IDLE_ENGINES = Runtime.getRuntime().availableProcessors();
+
+    // The dictionary that the letters of the board are matched against.
+    private final CompiledDictionary dictionary;
+    // The puzzle grid being searched.
+    private Board board;
+    // Alphabet code in the dictionary of the letter in each cell, 0 if no word contains that letter.
+    private int[] cellCodes = new int[0];
+
+    // Letters of the current path.
+    private final char[] word;
+    // Directions moved to reach the second and following letters of the current path.
+    private final char[] path;
+    // Visited cells for boards with more than 64 letters, or null for smaller boards.
+    private long[] visited;
+    // Visited cells table kept for the next board with more than 64 letters.
+    private long[] visitedTable = new long[0];
+    // Dictionary states reached by each letter of the current path.
+    private final int[] states;
+    // Dictionary states of the words that have already been reported.
+    private final long[] found;
+    // States set in found[], in the order they were reported.
+    private int[] foundStates = new int[64];
+    // Number of states in foundStates[].
+    private int foundCount;
+    // Number of reported words ending at or below each state, or null if found-word pruning is disabled.
+    private int[] foundBelow;
+    // Found-word counters kept for the next search with pruning, or null if none was made yet.
+    private int[] foundBelowTable;
+    // States whose counter in foundBelowTable[] is not 0.
+    private int[] countedStates = new int[64];
+    // Number of states in countedStates[].
+    private int countedCount;
+    // Counters of the work done by the search, or null if they are not collected.
+    private SolveMetrics metrics;
+
+    // Receives every newly found word.
+    private Listener listener;
+    // Cell number of the letter the current path starts from.
+    private int startCell;
+
+    SearchEngine(CompiledDictionary dictionary, Board board) {
+        this(dictionary, board, false);
+    }
+
+    /**
+     * @param dictionary The dictionary that the letters of the board are matched against
+     * @param board The puzzle grid to be searched
+     * @param pruneFoundWords true to stop entering states whose words have all been found
+     */
+    SearchEngine(CompiledDictionary dictionary, Board board, boolean pruneFoundWords) {
+        this(dictionary, board, pruneFoundWords, null);
+    }
+
+    /**
+     * @param dictionary The dictionary that the letters of the board are matched against
+     * @param board The puzzle grid to be searched
+     * @param pruneFoundWords true to stop entering states whose words have all been found
+     * @param metrics Receives the counters of the search, or null to not collect them
+     */
+    SearchEngine(CompiledDictionary dictionary, Board board, boolean pruneFoundWords, SolveMetrics metrics) {
+        this.dictionary = dictionary;
+        // a path never holds more letters than the longest word
+        int maxDepth = dictionary.getMaxWordLength() + 1;
+        word = new char[maxDepth];
+        path = new char[maxDepth];
+        states = new int[maxDepth];
+        found = new long[(dictionary.getCapacity() + 63) >>> 6];
+        bind(board, pruneFoundWords, metrics);
+    }
+
+    /**
+     * Borrows an unused engine of the dictionary for a board, or creates one if all of them are in use.
+     * The engine must be given back with release() once the search is done.
+     * @param dictionary The dictionary that the letters of the board are matched against
+     * @param board The puzzle grid to be searched
+     * @param pruneFoundWords true to stop entering states whose words have all been found
+     * @param metrics Receives the counters of the search, or null to not collect them
+     * @return An engine with no words found
+     */
+    static SearchEngine acquire(CompiledDictionary dictionary, Board board, boolean pruneFoundWords, SolveMetrics metrics){
+        SearchEngine engine;
+        synchronized(dictionary.idleEngines){
+            engine = dictionary.idleEngines.pollLast();
+        }
+        if(engine==null){
+            return new SearchEngine(dictionary, board, pruneFoundWords, metrics);
+        }
+        engine.bind(board, pruneFoundWords, metrics);
+        return engine;
+    }
+
+    /**
+     * Forgets the words found and the board, and gives the engine back to its dictionary for the next acquire().
+     * The engine must not be used afterwards.
+     */
+    void release(){
+        clearFound();
+        board = null;
+        metrics = null;
+        listener = null;
+        synchronized(dictionary.idleEngines){
+            if(dictionary.idleEngines.size() < MAX_IDLE_ENGINES){
+                dictionary.idleEngines.addLast(this);
+            }
+        }
+    }
+
+    /**
+     * Points the engine at a board, growing the tables that depend on its size.
+     */
+    private void bind(Board board, boolean pruneFoundWords, SolveMetrics metrics){
+        this.board = board;
+        this.metrics = metrics;
+        if(metrics!=null && metrics.timesStartCells){
+            metrics.ensureCells(board.size());
+        }
+
+        int cells = board.size();
+        if(cellCodes.length < cells){
+            cellCodes = new int[cells];
+        }
+        for(int cell=0;cell<cells;cell++){
+            cellCodes[cell] = dictionary.codeOf(board.letters[cell]);
+        }
+        if(cells > Long.SIZE && visitedTable.length < (cells + 63) >>> 6){
+            visitedTable = new long[(cells + 63) >>> 6];
+        }
+        visited = cells > Long.SIZE ? visitedTable : null;
+
+        if(pruneFoundWords && foundBelowTable==null){
+            foundBelowTable = new int[dictionary.getCapacity()];
+        }
+        foundBelow = pruneFoundWords ? foundBelowTable : null;
+    }
+
+    /**
+     * Searches the words starting at every letter of the board, in x-then-y order.
+     * @param listener Receives each newly found word
+     */
+    void solve(Listener listener){
+        solve(0, board.size(), listener);
+    }
+
+    /**
+     * Searches the words starting at the letters with cell numbers in the given range.
+     * @param fromCell First cell number to start from, inclusive
+     * @param toCell Last cell number to start from, exclusive
+     * @param listener Receives each newly found word
+     */
+    void solve(int fromCell, int toCell, Listener listener){
+        this.listener = listener;
+        for(int cell=fromCell;cell<toCell;cell++){
+            int state = dictionary.child(Trie.ROOT, cellCodes[cell]);
+            if(metrics!=null){
+                metrics.lookup(state==Trie.NO_STATE ? Trie.RETURN_IS_LEAF : dictionary.state(state));
+            }
+            if(state==Trie.NO_STATE || isExhausted(state)){
+                continue;
+            }
+            if(metrics==null){
+                searchFrom(cell, state);
+            } else if(metrics.timesStartCells){
+                measureFrom(cell, state);
+            } else {
+                metrics.expand(1);
+                searchFrom(cell, state);
+            }
+        }
+        this.listener = null;
+    }
+
+    /**
+     * Searches the words starting at every letter of the board, either cell by cell with solve() or
+     * word by word with solveByWords(), whichever SearchPlanner expects to be cheaper.
+     * @param listener Receives each newly found word
+     */
+    void solvePlanned(Listener listener){
+        LetterIndex index = new LetterIndex(board);
+        if(SearchPlanner.isWordDriven(dictionary, index, foundBelow!=null)){
+            solveByWords(index, listener);
+        } else {
+            solve(listener);
+        }
+    }
+
+    /**
+     * Searches the words of the dictionary one at a time, tracing each word only from the cells that hold
+     * its first letter, and only if the board has enough cells of each of its letters. Every word is reported
+     * with the same start cell and directions as solve() reports it, but in dictionary order.
+     * @param index Cells of the board grouped by letter, built from its current letters
+     * @param listener Receives each newly found word
+     */
+    void solveByWords(LetterIndex index, Listener listener){
+        this.listener = listener;
+        int[] remaining = new int[index.letters.length];
+        for(int i=0;i<remaining.length;i++){
+            remaining[i] = index.cellStart[i+1] - index.cellStart[i];
+        }
+        followWords(index, remaining, Trie.ROOT, 0, -1);
+        this.listener = null;
+    }
+
+    /**
+     * Replaces the letter in a cell of the board. Later searches see the new letter.
+     * @param cell Cell number of the letter
+     * @param letter The new letter
+     */
+    void setLetter(int cell, char letter){
+        board.letters[cell] = letter;
+        cellCodes[cell] = dictionary.codeOf(letter);
+    }
+
+    /**
+     * Forgets the words reported so far, so the next search reports them again when it finds them.
+     * Only the states marked since the last call are reset, so the cost grows with the words found.
+     */
+    void clearFound(){
+        for(int i=0;i<foundCount;i++){
+            found[foundStates[i] >>> 6] = 0L;
+        }
+        foundCount = 0;
+        for(int i=0;i<countedCount;i++){
+            foundBelowTable[countedStates[i]] = 0;
+        }
+        countedCount = 0;
+    }
+
+    /**
+     * @return The dictionary states of the words reported since the engine was created or last cleared
+     */
+    BitSet foundWords(){
+        BitSet words = new BitSet(dictionary.getCapacity());
+        for(int i=0;i<foundCount;i++){
+            words.set(foundStates[i]);
+        }
+        return words;
+    }
+
+    /**
+     * Searches the words starting at one letter.
+     * @param cell Cell number of the letter
+     * @param state Dictionary state reached by the letter
+     */
+    private void searchFrom(int cell, int state){
+        startCell = cell;
+        word[0] = board.letters[cell];
+        states[0] = state;
+        if(visited==null){
+            searchSmall(cell, state, 1, 1L << cell);
+        } else {
+            visited[cell >>> 6] |= 1L << cell;
+            searchLarge(cell, state, 1);
+            visited[cell >>> 6] &= ~(1L << cell);
+        }
+    }
+
+    /**
+     * Same as searchFrom(), but also times the search and commits a StartCellEvent if it is enabled.
+     * @param cell Cell number of the letter
+     * @param state Dictionary state reached by the letter
+     */
+    private void measureFrom(int cell, int state){
+        StartCellEvent event = new StartCellEvent();
+        long nodesBefore = metrics.nodesExpanded;
+        long wordsBefore = metrics.wordsFound;
+
+        event.begin();
+        long startTime = System.nanoTime();
+        metrics.expand(1);
+        searchFrom(cell, state);
+        metrics.startCellNanos[cell] += System.nanoTime() - startTime;
+        event.end();
+
+        if(event.shouldCommit()){
+            event.x = board.x(cell);
+            event.y = board.y(cell);
+            event.nodesExpanded = metrics.nodesExpanded - nodesBefore;
+            event.wordsFound = metrics.wordsFound - wordsBefore;
+            event.commit();
+        }
+    }
+
+    /**
+     * Extends the current path from a cell, for boards whose visited letters fit in a long.
+     * @param cell Cell of the last letter of the path
+     * @param state Dictionary state reached by the letters of the path
+     * @param depth Number of letters in the path
+     * @param visitedMask Bit mask of the cells on the path
+     */
+    private void searchSmall(int cell, int state, int depth, long visitedMask){
+        int extended = 0;
+        for(int i=board.neighbourStart[cell];i<board.neighbourStart[cell+1];i++){
+            int next = board.neighbours[i];
+            if((visitedMask & (1L << next)) != 0){
+                continue;
+            }
+            int nextState = dictionary.child(state, cellCodes[next]);
+            if(metrics!=null){
+                metrics.lookup(nextState==Trie.NO_STATE ? Trie.RETURN_IS_LEAF : dictionary.state(nextState));
+            }
+            if(nextState==Trie.NO_STATE || isExhausted(nextState)){
+                continue;
+            }
+            extended++;
+            word[depth] = board.letters[next];
+            path[depth-1] = board.directions[i];
+            states[depth] = nextState;
+            if(metrics!=null){
+                metrics.expand(depth+1);
+            }
+            if(dictionary.isWord(nextState)){
+                report(nextState, depth+1);
+            }
+            if(dictionary.hasChildren(nextState)){
+                searchSmall(next, nextState, depth+1, visitedMask | (1L << next));
+            } else if(metrics!=null){
+                metrics.deadEnds++;
+            }
+        }
+        if(extended==0 && metrics!=null){
+            metrics.deadEnds++;
+        }
+    }
+
+    /**
+     * Extends the current path from a cell, for boards with more than 64 letters.
+     * @param cell Cell of the last letter of the path
+     * @param state Dictionary state reached by the letters of the path
+     * @param depth Number of letters in the path
+     */
+    private void searchLarge(int cell, int state, int depth){
+        int extended = 0;
+        for(int i=board.neighbourStart[cell];i<board.neighbourStart[cell+1];i++){
+            int next = board.neighbours[i];
+            if((visited[next >>> 6] & (1L << next)) != 0){
+                continue;
+            }
+            int nextState = dictionary.child(state, cellCodes[next]);
+            if(metrics!=null){
+                metrics.lookup(nextState==Trie.NO_STATE ? Trie.RETURN_IS_LEAF : dictionary.state(nextState));
+            }
+            if(nextState==Trie.NO_STATE || isExhausted(nextState)){
+                continue;
+            }
+            extended++;
+            word[depth] = board.letters[next];
+            path[depth-1] = board.directions[i];
+            states[depth] = nextState;
+            if(metrics!=null){
+                metrics.expand(depth+1);
+            }
+            if(dictionary.isWord(nextState)){
+                report(nextState, depth+1);
+            }
+            if(dictionary.hasChildren(nextState)){
+                visited[next >>> 6] |= 1L << next;
+                searchLarge(next, nextState, depth+1);
+                visited[next >>> 6] &= ~(1L << next);
+            } else if(metrics!=null){
+                metrics.deadEnds++;
+            }
+        }
+        if(extended==0 && metrics!=null){
+            metrics.deadEnds++;
+        }
+    }
+
+    /**
+     * Walks the dictionary states below a state, following only the letters the board still has cells
+     * for, and traces every word that has not been found yet.
+     * @param index Cells of the board grouped by letter
+     * @param remaining Number of cells of each letter of the index not used by the letters in word[]
+     * @param state Dictionary state reached by the letters in word[]
+     * @param depth Number of letters in word[]
+     * @param first Position in the index of the first letter in word[], or -1 if word[] is empty
+     */
+    private void followWords(LetterIndex index, int[] remaining, int state, int depth, int first){
+        for(int i=0;i<index.letters.length;i++){
+            if(remaining[i]==0){
+                continue;
+            }
+            int nextState = dictionary.child(state, dictionary.codeOf(index.letters[i]));
+            if(metrics!=null){
+                metrics.lookup(nextState==Trie.NO_STATE ? Trie.RETURN_IS_LEAF : dictionary.state(nextState));
+            }
+            if(nextState==Trie.NO_STATE || isExhausted(nextState)){
+                continue;
+            }
+            word[depth] = index.letters[i];
+            states[depth] = nextState;
+            int wordFirst = depth==0 ? i : first;
+            // as in solve(), words of a single letter are never reported
+            if(depth > 0 && dictionary.isWord(nextState) && (found[nextState >>> 6] & (1L << nextState))==0){
+                traceWord(index, wordFirst, depth+1);
+            }
+            if(dictionary.hasChildren(nextState)){
+                remaining[i]--;
+                followWords(index, remaining, nextState, depth+1, wordFirst);
+                remaining[i]++;
+            }
+        }
+    }
+
+    /**
+     * Looks for the word in word[] from every cell holding its first letter, in ascending cell order,
+     * and reports the first path found.
+     * @param index Cells of the board grouped by letter
+     * @param first Position in the index of the first letter of the word
+     * @param length Number of letters in the word
+     */
+    private void traceWord(LetterIndex index, int first, int length){
+        for(int i=index.cellStart[first];i<index.cellStart[first+1];i++){
+            int cell = index.cells[i];
+            boolean traced;
+            if(visited==null){
+                traced = traceSmall(cell, 1, length, 1L << cell);
+            } else {
+                visited[cell >>> 6] |= 1L << cell;
+                traced = traceLarge(cell, 1, length);
+                visited[cell >>> 6] &= ~(1L << cell);
+            }
+            if(traced){
+                startCell = cell;
+                report(states[length-1], length);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Extends a path along the letters of word[], for boards whose visited letters fit in a long.
+     * @param cell Cell of the last letter of the path
+     * @param depth Number of letters in the path
+     * @param length Number of letters in the word
+     * @param visitedMask Bit mask of the cells on the path
+     * @return true if the path was extended to the whole word, with its directions in path[]
+     */
+    private boolean traceSmall(int cell, int depth, int length, long visitedMask){
+        if(depth==length){
+            return true;
+        }
+        for(int i=board.neighbourStart[cell];i<board.neighbourStart[cell+1];i++){
+            int next = board.neighbours[i];
+            if(board.letters[next]!=word[depth] || (visitedMask & (1L << next)) != 0){
+                continue;
+            }
+            path[depth-1] = board.directions[i];
+            if(metrics!=null){
+                metrics.expand(depth+1);
+            }
+            if(traceSmall(next, depth+1, length, visitedMask | (1L << next))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extends a path along the letters of word[], for boards with more than 64 letters.
+     * @param cell Cell of the last letter of the path
+     * @param depth Number of letters in the path
+     * @param length Number of letters in the word
+     * @return true if the path was extended to the whole word, with its directions in path[]
+     */
+    private boolean traceLarge(int cell, int depth, int length){
+        if(depth==length){
+            return true;
+        }
+        for(int i=board.neighbourStart[cell];i<board.neighbourStart[cell+1];i++){
+            int next = board.neighbours[i];
+            if(board.letters[next]!=word[depth] || (visited[next >>> 6] & (1L << next)) != 0){
+                continue;
+            }
+            path[depth-1] = board.directions[i];
+            if(metrics!=null){
+                metrics.expand(depth+1);
+            }
+            visited[next >>> 6] |= 1L << next;
+            boolean traced = traceLarge(next, depth+1, length);
+            visited[next >>> 6] &= ~(1L << next);
+            if(traced){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes the word on the current path to the listener, unless it has already been found.
+     * @param state Dictionary state at which the word ends
+     * @param length Number of letters in the word
+     */
+    private void report(int state, int length){
+        if((found[state >>> 6] & (1L << state)) != 0){
+            return;
+        }
+        found[state >>> 6] |= 1L << state;
+        if(foundCount==foundStates.length){
+            foundStates = Arrays.copyOf(foundStates, foundCount*2);
+        }
+        foundStates[foundCount++] = state;
+        if(metrics!=null){
+            metrics.wordsFound++;
+        }
+        if(foundBelow!=null){
+            for(int i=0;i<length;i++){
+                if(foundBelow[states[i]]++==0){
+                    if(countedCount==countedStates.length){
+                        countedStates = Arrays.copyOf(countedStates, countedCount*2);
+                    }
+                    countedStates[countedCount++] = states[i];
+                }
+            }
+        }
+        listener.wordFound(state, startCell, word, path, length);
+    }
+
+    /**
+     * @param state A dictionary state
+     * @return true if found-word pruning is enabled and every word below the state has been found
+     */
+    private boolean isExhausted(int state){
+        return foundBelow!=null && foundBelow[state]==dictionary.wordsBelow(state);
+    }
+
+    /**
+     * Receives the words found by a SearchEngine, each one only the first time it is found.
+     */
+    interface Listener {
+        /**
+         * Called when a word is found for the first time. The arrays are reused by the engine,
+         * so they must be copied if they are needed after this method returns.
+         * @param state Dictionary state at which the word ends
+         * @param startCell Cell number of the first letter of the word
+         * @param word Letters of the word, in positions 0 to length-1
+         * @param path Directions moved to reach the second and following letters, in positions 0 to length-2
+         * @param length Number of letters in the word
+         */
+        void wordFound(int state, int startCell, char[] word, char[] path, int length);
+    }
+}
@@ -0,0 +1,60 @@
+package pkg;
+
+import static pkg.Trie.*;
+
+/**
+ * Chooses how a SearchEngine searches a board: cell by cell with solve(), or word by word with solveByWords().
+ *
+ * The board-driven search starts at every cell whose letter begins a word, and from there follows all words
+ * of the dictionary at once, so its work grows with the board. The word-driven search traces every word on
+ * its own from the cells holding its first letter, so its work grows with the number of words that begin
+ * with the letters of the board. Both report the same words with the same paths.
+ *
+ * The choice is made from the number of cells of each letter and the number of words below each first
+ * letter, which are both known before searching. A word-driven search stops tracing a word at its first
+ * path, which comes early on large boards where most short words can be found, but only after every
+ * start cell has been tried for the many words that small boards do not hold. Boards below a minimum size
+ * are therefore always searched cell by cell.
+ *
+ * With found-word pruning, the board-driven search skips every start cell whose words have all been found,
+ * which is most of the work on the large boards the word-driven search is meant for. Against that search
+ * the word-driven search only wins with fewer words per start cell and on larger boards, so pruned searches
+ * are planned with their own limits.
+ */
+final class SearchPlanner {
+    // Number of words traced from a cell that cost about as much as one board-driven search from that cell.
+    static final int WORDS_PER_START = 16;
+    // Number of letters below which a board is always searched cell by cell.
+    static final int MIN_WORD_DRIVEN_CELLS = 2048;
+    // Same as WORDS_PER_START and MIN_WORD_DRIVEN_CELLS, against a board-driven search with found-word pruning.
+    static final int PRUNED_WORDS_PER_START = 2;
+    static final int MIN_PRUNED_WORD_DRIVEN_CELLS = 4096;
+
+    private SearchPlanner() {
+    }
+
+    /**
+     * @param dictionary The dictionary to be searched for
+     * @param index Cells of the board grouped by letter
+     * @param pruneFoundWords true if the board-driven search would skip the states whose words have all been found
+     * @return true if the word-driven search is expected to be cheaper than the board-driven search
+     */
+    static boolean isWordDriven(CompiledDictionary dictionary, LetterIndex index, boolean pruneFoundWords){
+        if(index.cells.length < (pruneFoundWords ? MIN_PRUNED_WORD_DRIVEN_CELLS : MIN_WORD_DRIVEN_CELLS)){
+            return false;
+        }
+        // cells the board-driven search starts from, and words traced from a cell by the word-driven search
+        long boardStarts = 0;
+        long wordStarts = 0;
+        for(int i=0;i<index.letters.length;i++){
+            int state = dictionary.child(ROOT, dictionary.codeOf(index.letters[i]));
+            if(state==NO_STATE){
+                continue;
+            }
+            int cells = index.cellStart[i+1] - index.cellStart[i];
+            boardStarts += cells;
+            wordStarts += (long) dictionary.wordsBelow(state) * cells;
+        }
+        return wordStarts <= (pruneFoundWords ? PRUNED_WORDS_PER_START : WORDS_PER_START) * boardStarts;
+    }
+}
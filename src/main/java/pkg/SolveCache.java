@@ -0,0 +1,391 @@
+package pkg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of solved puzzles, placed in front of PuzzleSolver.
+ *
+ * Results are keyed by the letters, size and topology of the grid together with the version of the dictionary,
+ * so a new dictionary never sees the results of an older one. When the cache is full, the least
+ * recently used result is evicted.
+ *
+ * Optionally, a grid also matches the cached result of any of its eight rotations and reflections.
+ * The coordinates and directions of the cached result are then translated to the requested grid.
+ * A translated path always spells the word in the requested grid, but it is not necessarily the
+ * path that solve() would report first, because the search visits the letters of a rotated grid in
+ * a different order. A grid that was cached in exactly the same orientation always gets the exact result.
+ * Only the symmetries that turn every move of the Topology into another of its moves are used, so on
+ * a HEX grid, whose rows are slanted, a grid matches its transposition and half turn but not its mirror images.
+ *
+ * All methods are thread-safe. Puzzles are solved outside the lock, so the same grid may be solved
+ * twice if it is requested by two threads at the same time.
+ */
+public class SolveCache {
+    // Number of rotations and reflections of a grid, including the grid itself.
+    private static final int SYMMETRIES = 8;
+    // Symmetry bit that swaps the X and Y axes. It is applied before the flips.
+    private static final int TRANSPOSE = 1;
+    // Symmetry bit that mirrors the X axis.
+    private static final int FLIP_X = 2;
+    // Symmetry bit that mirrors the Y axis.
+    private static final int FLIP_Y = 4;
+
+    // Maximum number of results kept.
+    private final int maxEntries;
+    // Whether rotated and reflected grids share their results.
+    private final boolean matchSymmetries;
+    // Cached results in least recently used order.
+    private final LinkedHashMap<Key, CachedResult> entries;
+
+    // Number of requests answered from the cache.
+    private long hits;
+    // Number of requests answered by translating the result of a rotated or reflected grid.
+    private long symmetricHits;
+    // Number of requests that had to be solved.
+    private long misses;
+    // Number of results evicted to make room for newer ones.
+    private long evictions;
+
+    /**
+     * Creates a cache that only matches grids in the same orientation.
+     * @param maxEntries Maximum number of results kept
+     */
+    public SolveCache(int maxEntries) {
+        this(maxEntries, false);
+    }
+
+    /**
+     * @param maxEntries Maximum number of results kept
+     * @param matchSymmetries true to answer a grid from the cached result of one of its rotations or reflections
+     */
+    public SolveCache(int maxEntries, boolean matchSymmetries) {
+        this.maxEntries = maxEntries;
+        this.matchSymmetries = matchSymmetries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                if(size() > SolveCache.this.maxEntries){
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the words of the dictionary found in the puzzle grid, solving the grid only if its result is not cached.
+     * @param dictionary The dictionary to search
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    public List<String> solve(CompiledDictionary dictionary, List<String> puzzleGrid){
+        return solve(dictionary, puzzleGrid, Topology.EIGHT_WAY);
+    }
+
+    /**
+     * Same as solve(CompiledDictionary, List), for a grid whose neighbours are decided by the given topology.
+     * @param dictionary The dictionary to search
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @param topology Rule that decides which letters of the grid are neighbours
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    public List<String> solve(CompiledDictionary dictionary, List<String> puzzleGrid, Topology topology){
+        int height = puzzleGrid.size();
+        int width = height==0 ? 0 : puzzleGrid.get(0).length();
+        char[] letters = Board.pack(puzzleGrid);
+        Key key = key(dictionary.getVersion(), topology, width, height, letters);
+
+        CachedResult entry;
+        synchronized (this){
+            entry = entries.get(key);
+            if(entry==null){
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+
+        if(entry==null){
+            List<String> result = new PuzzleSolver(dictionary, new Board(width, height, letters, topology)).solve();
+            synchronized (this){
+                entries.put(key, new CachedResult(width, height, letters, result));
+            }
+            return new ArrayList<>(result);
+        }
+
+        int symmetry = entry.symmetryTo(topology, width, height, letters);
+        if(symmetry==0){
+            return new ArrayList<>(entry.result);
+        }
+        synchronized (this){
+            symmetricHits++;
+        }
+        return translate(entry.result, symmetry, entry.width, entry.height);
+    }
+
+    /**
+     * Removes all cached results. The statistics are kept.
+     */
+    public synchronized void clear(){
+        entries.clear();
+    }
+
+    /**
+     * @return Number of results currently cached
+     */
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    /**
+     * @return Number of requests answered from the cache, including those answered from a rotated or reflected grid
+     */
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    /**
+     * @return Number of requests answered by translating the result of a rotated or reflected grid
+     */
+    public synchronized long getSymmetricHits(){
+        return symmetricHits;
+    }
+
+    /**
+     * @return Number of requests that had to be solved
+     */
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    /**
+     * @return Number of results evicted to make room for newer ones
+     */
+    public synchronized long getEvictions(){
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString(){
+        return "entries=" + entries.size() + " hits=" + hits + " symmetricHits=" + symmetricHits
+                + " misses=" + misses + " evictions=" + evictions;
+    }
+
+    /**
+     * Creates the cache key of a grid. With symmetries enabled, the key is built from the orientation
+     * of the grid that sorts first, so all rotations and reflections of a grid share one key.
+     */
+    private Key key(long version, Topology topology, int width, int height, char[] letters){
+        Key best = new Key(version, topology, width, height, letters);
+        if(!matchSymmetries){
+            return best;
+        }
+        for(int symmetry=1;symmetry<SYMMETRIES;symmetry++){
+            if(!preserves(topology, symmetry)){
+                continue;
+            }
+            boolean transpose = (symmetry & TRANSPOSE) != 0;
+            Key candidate = new Key(version, topology, transpose ? height : width, transpose ? width : height,
+                    transform(letters, width, height, symmetry));
+            if(candidate.compareTo(best) < 0){
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Applies a symmetry to the letters of a grid.
+     * @param letters Letters indexed by cell number
+     * @param width Number of columns
+     * @param height Number of rows
+     * @param symmetry Combination of the TRANSPOSE, FLIP_X and FLIP_Y bits
+     * @return The letters of the transformed grid indexed by its cell numbers
+     */
+    static char[] transform(char[] letters, int width, int height, int symmetry){
+        boolean transpose = (symmetry & TRANSPOSE) != 0;
+        int newHeight = transpose ? width : height;
+        char[] result = new char[letters.length];
+        for(int cell=0;cell<letters.length;cell++){
+            int x = cell/height + 1;
+            int y = cell%height + 1;
+            int newX = transformX(x, y, width, height, symmetry);
+            int newY = transformY(x, y, width, height, symmetry);
+            result[(newX-1)*newHeight + (newY-1)] = letters[cell];
+        }
+        return result;
+    }
+
+    /**
+     * @return The X coordinate that (x, y) moves to under the symmetry
+     */
+    private static int transformX(int x, int y, int width, int height, int symmetry){
+        int newX = (symmetry & TRANSPOSE) != 0 ? y : x;
+        int newWidth = (symmetry & TRANSPOSE) != 0 ? height : width;
+        return (symmetry & FLIP_X) != 0 ? newWidth + 1 - newX : newX;
+    }
+
+    /**
+     * @return The Y coordinate that (x, y) moves to under the symmetry
+     */
+    private static int transformY(int x, int y, int width, int height, int symmetry){
+        int newY = (symmetry & TRANSPOSE) != 0 ? x : y;
+        int newHeight = (symmetry & TRANSPOSE) != 0 ? width : height;
+        return (symmetry & FLIP_Y) != 0 ? newHeight + 1 - newY : newY;
+    }
+
+    /**
+     * @return The direction letter that a move in the given direction turns into under the symmetry
+     */
+    private static char transformDirection(char direction, int symmetry){
+        for(int i=0;i<Board.DIRECTIONS.length;i++){
+            if(Board.DIRECTIONS[i]!=direction){
+                continue;
+            }
+            int offsetX = (symmetry & TRANSPOSE) != 0 ? Board.OFFSET_Y[i] : Board.OFFSET_X[i];
+            int offsetY = (symmetry & TRANSPOSE) != 0 ? Board.OFFSET_X[i] : Board.OFFSET_Y[i];
+            offsetX = (symmetry & FLIP_X) != 0 ? -offsetX : offsetX;
+            offsetY = (symmetry & FLIP_Y) != 0 ? -offsetY : offsetY;
+            for(int j=0;j<Board.DIRECTIONS.length;j++){
+                if(Board.OFFSET_X[j]==offsetX && Board.OFFSET_Y[j]==offsetY){
+                    return Board.DIRECTIONS[j];
+                }
+            }
+        }
+        return direction;
+    }
+
+    /**
+     * @return true if the symmetry turns every move of the topology into another move of the topology
+     */
+    static boolean preserves(Topology topology, int symmetry){
+        for(char direction: topology.directions){
+            if(!topology.hasDirection(transformDirection(direction, symmetry))){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Translates the start coordinates and directions of a result to a transformed grid.
+     * Words keep their order, since the words themselves do not change.
+     * @param result Result lines of the cached grid
+     * @param symmetry Symmetry that turns the cached grid into the requested one
+     * @param width Number of columns of the cached grid
+     * @param height Number of rows of the cached grid
+     * @return The translated result lines
+     */
+    static List<String> translate(List<String> result, int symmetry, int width, int height){
+        List<String> translated = new ArrayList<>(result.size());
+        for(String line: result){
+            String[] fields = line.split("\t", -1);
+            int x = Integer.parseInt(fields[1]);
+            int y = Integer.parseInt(fields[2]);
+            char[] directions = fields[3].toCharArray();
+            for(int i=0;i<directions.length;i++){
+                directions[i] = transformDirection(directions[i], symmetry);
+            }
+            translated.add(fields[0] + "\t" + transformX(x, y, width, height, symmetry) + "\t"
+                    + transformY(x, y, width, height, symmetry) + "\t" + new String(directions));
+        }
+        return translated;
+    }
+
+    /**
+     * Cache key made of the dictionary version and the topology, size and letters of a grid.
+     */
+    private static final class Key implements Comparable<Key> {
+        // Version of the dictionary the grid was solved with.
+        private final long version;
+        // Rule that decides which letters of the grid are neighbours.
+        private final Topology topology;
+        // Number of columns of the grid.
+        private final int width;
+        // Number of rows of the grid.
+        private final int height;
+        // Letters of the grid indexed by cell number.
+        private final String letters;
+        // Hash code, computed once since keys are compared on every request.
+        private final int hash;
+
+        Key(long version, Topology topology, int width, int height, char[] letters) {
+            this.version = version;
+            this.topology = topology;
+            this.width = width;
+            this.height = height;
+            this.letters = new String(letters);
+            this.hash = 31 * (31 * (31 * (31 * Long.hashCode(version) + topology.ordinal()) + width) + height) + this.letters.hashCode();
+        }
+
+        @Override
+        public int compareTo(Key other){
+            if(width!=other.width){
+                return Integer.compare(width, other.width);
+            }
+            if(height!=other.height){
+                return Integer.compare(height, other.height);
+            }
+            return letters.compareTo(other.letters);
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if(!(other instanceof Key)){
+                return false;
+            }
+            Key key = (Key) other;
+            return version==key.version && topology==key.topology && width==key.width && height==key.height && letters.equals(key.letters);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+    }
+
+    /**
+     * A cached result, together with the grid in the orientation it was solved in.
+     */
+    private static final class CachedResult {
+        // Number of columns of the solved grid.
+        private final int width;
+        // Number of rows of the solved grid.
+        private final int height;
+        // Letters of the solved grid indexed by cell number.
+        private final char[] letters;
+        // Result lines as returned by PuzzleSolver.solve().
+        private final List<String> result;
+
+        CachedResult(int width, int height, char[] letters, List<String> result) {
+            this.width = width;
+            this.height = height;
+            this.letters = letters;
+            this.result = result;
+        }
+
+        /**
+         * Finds the symmetry that turns the solved grid into the given grid, trying the grid itself first.
+         * @param topology Rule that decides which letters of both grids are neighbours
+         * @return The symmetry, 0 if the grids are the same
+         */
+        int symmetryTo(Topology topology, int width, int height, char[] letters){
+            for(int symmetry=0;symmetry<SYMMETRIES;symmetry++){
+                if(!preserves(topology, symmetry)){
+                    continue;
+                }
+                boolean transpose = (symmetry & TRANSPOSE) != 0;
+                if((transpose ? this.height : this.width)==width && (transpose ? this.width : this.height)==height
+                        && Arrays.equals(transform(this.letters, this.width, this.height, symmetry), letters)){
+                    return symmetry;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package pkg;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder event committed once for every puzzle solved by PuzzleSolver.solve() that takes
+ * longer than the threshold, 10 ms by default.
+ *
+ * The event is enabled by default in a recording. When no recording is running, creating
+ * and checking the event is all it costs, and no counters are collected. When one is running,
+ * the search counts its work but does not time its start letters, unless the caller passed
+ * its own SolveMetrics, so the slowest start is only known in that case.
+ */
+@Name("pkg.Solve")
+@Label("Boggle Solve")
+@Category("Boggle")
+@Description("Search of one puzzle grid")
+@Threshold("10 ms")
+public final class SolveEvent extends Event {
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Dictionary Words")
+    int dictionaryWords;
+
+    @Label("Words Found")
+    long wordsFound;
+
+    @Label("Nodes Expanded")
+    long nodesExpanded;
+
+    @Label("Missed Lookups")
+    @Description("Lookups of strings that are not in the dictionary, or end it without being a word")
+    long leafLookups;
+
+    @Label("Word Lookups")
+    long wordLookups;
+
+    @Label("Prefix Lookups")
+    long substringLookups;
+
+    @Label("Word And Prefix Lookups")
+    long wordSubstringLookups;
+
+    @Label("Dead Ends")
+    long deadEnds;
+
+    @Label("Max Depth")
+    int maxDepth;
+
+    @Label("Slowest Start X")
+    @Description("0 if the start letters were not timed")
+    int slowestX;
+
+    @Label("Slowest Start Y")
+    int slowestY;
+
+    /**
+     * Copies the counters of a finished solve into the event.
+     * @param board The puzzle grid that was searched
+     * @param dictionary The dictionary that was searched
+     * @param metrics The counters collected during the search
+     */
+    void set(Board board, CompiledDictionary dictionary, SolveMetrics metrics){
+        width = board.getWidth();
+        height = board.getHeight();
+        dictionaryWords = dictionary.getWordCount();
+        wordsFound = metrics.getWordsFound();
+        nodesExpanded = metrics.getNodesExpanded();
+        leafLookups = metrics.getLookups(Trie.RETURN_IS_LEAF);
+        wordLookups = metrics.getLookups(Trie.RETURN_IS_WORD);
+        substringLookups = metrics.getLookups(Trie.RETURN_IS_SUBSTRING);
+        wordSubstringLookups = metrics.getLookups(Trie.RETURN_IS_WORD_SUBSTRING);
+        deadEnds = metrics.getDeadEnds();
+        maxDepth = metrics.getMaxDepth();
+        int slowest = metrics.getSlowestStartCell();
+        if(slowest >= 0){
+            slowestX = board.x(slowest);
+            slowestY = board.y(slowest);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package pkg;
+
+import java.util.Arrays;
+
+import static pkg.Trie.*;
+
+/**
+ * Counters collected while searching a puzzle grid, to explain why some grids take longer than others.
+ *
+ * Counters are only collected when an instance is passed to a solve or search method. Without one,
+ * the search checks a single null field per letter and does no other work, so the counters can be
+ * left available in production and switched on per request.
+ *
+ * An instance may be passed to several solves in a row, in which case the counters add up.
+ * It is not thread-safe, so it must not be shared by solves running at the same time.
+ */
+public final class SolveMetrics {
+    // Whether the search times every start letter and commits a StartCellEvent for it.
+    final boolean timesStartCells;
+    // Number of dictionary states entered, one per letter added to a path.
+    long nodesExpanded;
+    // Number of dictionary lookups, indexed by the RETURN_* constant of their outcome.
+    final long[] lookups = new long[4];
+    // Number of paths abandoned because no neighbour could extend them.
+    long deadEnds;
+    // Length of the longest path searched.
+    int maxDepth;
+    // Number of distinct words found.
+    long wordsFound;
+    // Time spent searching from each start letter in nanoseconds, indexed by cell number.
+    long[] startCellNanos = new long[0];
+
+    /**
+     * Creates counters that also time every start letter.
+     */
+    public SolveMetrics() {
+        this(true);
+    }
+
+    /**
+     * @param timesStartCells true to also time every start letter, which reads the clock twice per letter
+     */
+    SolveMetrics(boolean timesStartCells) {
+        this.timesStartCells = timesStartCells;
+    }
+
+    /**
+     * Makes room for the timings of a board with the given number of letters.
+     * @param cells Number of letters in the board
+     */
+    void ensureCells(int cells){
+        if(startCellNanos.length < cells){
+            startCellNanos = Arrays.copyOf(startCellNanos, cells);
+        }
+    }
+
+    /**
+     * Records a dictionary lookup.
+     * @param result RETURN_* constant describing the string looked up
+     */
+    void lookup(int result){
+        lookups[result]++;
+    }
+
+    /**
+     * Records a state entered by the search.
+     * @param depth Number of letters in the path after entering the state
+     */
+    void expand(int depth){
+        nodesExpanded++;
+        if(depth > maxDepth){
+            maxDepth = depth;
+        }
+    }
+
+    /**
+     * @return Number of dictionary states entered, one per letter added to a path
+     */
+    public long getNodesExpanded(){
+        return nodesExpanded;
+    }
+
+    /**
+     * @param result Any of the RETURN_* constants of the Trie class
+     * @return Number of lookups that had the given outcome. Lookups of strings that are not in the
+     *         dictionary at all are counted as RETURN_IS_LEAF, as search() returns for them
+     */
+    public long getLookups(int result){
+        return lookups[result];
+    }
+
+    /**
+     * @return Total number of dictionary lookups
+     */
+    public long getTotalLookups(){
+        return lookups[RETURN_IS_LEAF] + lookups[RETURN_IS_WORD] + lookups[RETURN_IS_SUBSTRING] + lookups[RETURN_IS_WORD_SUBSTRING];
+    }
+
+    /**
+     * @return Number of paths abandoned because no neighbour could extend them
+     */
+    public long getDeadEnds(){
+        return deadEnds;
+    }
+
+    /**
+     * @return Length of the longest path searched
+     */
+    public int getMaxDepth(){
+        return maxDepth;
+    }
+
+    /**
+     * @return Number of distinct words found
+     */
+    public long getWordsFound(){
+        return wordsFound;
+    }
+
+    /**
+     * @param cell Cell number of a start letter, as used by Board
+     * @return Time spent searching the words starting at the letter in nanoseconds
+     */
+    public long getStartCellNanos(int cell){
+        return cell < startCellNanos.length ? startCellNanos[cell] : 0;
+    }
+
+    /**
+     * @return Time spent searching from all start letters in nanoseconds
+     */
+    public long getTotalNanos(){
+        long total = 0;
+        for(long nanos: startCellNanos){
+            total += nanos;
+        }
+        return total;
+    }
+
+    /**
+     * @return Cell number of the start letter that took longest to search, or -1 if no letter was searched
+     */
+    public int getSlowestStartCell(){
+        int slowest = -1;
+        for(int cell=0;cell<startCellNanos.length;cell++){
+            if(startCellNanos[cell] > 0 && (slowest < 0 || startCellNanos[cell] > startCellNanos[slowest])){
+                slowest = cell;
+            }
+        }
+        return slowest;
+    }
+
+    @Override
+    public String toString(){
+        return "nodes=" + nodesExpanded
+                + " lookups[leaf=" + lookups[RETURN_IS_LEAF] + " word=" + lookups[RETURN_IS_WORD]
+                + " substring=" + lookups[RETURN_IS_SUBSTRING] + " wordSubstring=" + lookups[RETURN_IS_WORD_SUBSTRING] + "]"
+                + " deadEnds=" + deadEnds + " maxDepth=" + maxDepth + " words=" + wordsFound
+                + " nanos=" + getTotalNanos();
+    }
+}
@@ -0,0 +1,310 @@
+package pkg;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Long-running server that loads the dictionary once and solves puzzles sent over HTTP.
+ *
+ * Puzzles are posted to /solve as plain text in the same format as the puzzle file. A request may carry
+ * many grids separated by empty lines, and the response holds the result lines of each grid in the
+ * same order, also separated by empty lines. Each result line has the format returned by Boggle.solve().
+ * If any grid has rows of unequal length, the request fails with status 400. Requests larger than
+ * MAX_BODY_BYTES or holding more than MAX_GRIDS grids are refused with status 413, and a failure
+ * while solving is answered with status 500.
+ * The query parameter "topology" selects the Topology of the grids by name, such as /solve?topology=torus
+ * for grids whose edges wrap around. Without it, the neighbours are the eight letters around each letter.
+ * The dictionary is read from a DictionaryHolder once per request, so it can be updated while the
+ * server runs, and all grids of a request are solved with the same dictionary.
+ *
+ * Requests are handled on a virtual thread each when the runtime supports them, otherwise on a cached
+ * thread pool. The grids of a single request are solved in parallel on the common ForkJoinPool.
+ *
+ * The server can be run as: java -cp boggle-solution-generator.jar pkg.SolverServer {dictionary or snapshot file} {port}
+ */
+public class SolverServer {
+    // Path of the endpoint that solves puzzles.
+    static final String SOLVE_PATH = "/solve";
+    // Largest request body accepted, in bytes.
+    static final int MAX_BODY_BYTES = 1 << 20;
+    // Largest number of grids accepted in one request.
+    static final int MAX_GRIDS = 1000;
+
+    // Holds the dictionary shared by all requests.
+    private final DictionaryHolder dictionary;
+    // The underlying HTTP server.
+    private final HttpServer server;
+    // Executor created by this server, shut down when the server stops. null if the executor was supplied.
+    private final ExecutorService ownExecutor;
+
+    /**
+     * Creates a server listening on the loopback interface, handling requests on virtual threads when available.
+     * @param dictionary The dictionary used for every puzzle
+     * @param port Port to listen on, or 0 to pick a free port
+     * @throws IOException If the port cannot be bound
+     */
+    public SolverServer(CompiledDictionary dictionary, int port) throws IOException {
+        this(dictionary, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), null);
+    }
+
+    /**
+     * @param dictionary The dictionary used for every puzzle
+     * @param address Address to listen on
+     * @param executor Executor that handles the requests, or null to use a virtual thread per request when available
+     * @throws IOException If the address cannot be bound
+     */
+    public SolverServer(CompiledDictionary dictionary, InetSocketAddress address, Executor executor) throws IOException {
+        this(new DictionaryHolder(dictionary), address, executor);
+    }
+
+    /**
+     * @param dictionary Holds the dictionary used for every puzzle, which may be updated while the server runs
+     * @param address Address to listen on
+     * @param executor Executor that handles the requests, or null to use a virtual thread per request when available
+     * @throws IOException If the address cannot be bound
+     */
+    public SolverServer(DictionaryHolder dictionary, InetSocketAddress address, Executor executor) throws IOException {
+        this.dictionary = dictionary;
+        this.ownExecutor = executor==null ? newRequestExecutor() : null;
+        this.server = HttpServer.create(address, 0);
+        server.createContext(SOLVE_PATH, this::handleSolve);
+        server.setExecutor(executor==null ? ownExecutor : executor);
+    }
+
+    /**
+     * Starts accepting requests in the background.
+     */
+    public void start(){
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits for at most the given delay for running requests to finish.
+     * @param delaySeconds Maximum time to wait in seconds
+     */
+    public void stop(int delaySeconds){
+        server.stop(delaySeconds);
+        if(ownExecutor!=null){
+            ownExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return The address the server listens on, including the port picked when 0 was given
+     */
+    public InetSocketAddress getAddress(){
+        return server.getAddress();
+    }
+
+    /**
+     * Reads the grids of a request and solves them.
+     * @param stream Reader over the grids, separated by one or more empty lines
+     * @param topology Rule that decides which letters of the grids are neighbours
+     * @return The result lines of each grid in the order read, or null if any grid is invalid
+     */
+    List<List<String>> solveBatch(BufferedReader stream, Topology topology) throws IOException {
+        List<Boggle> puzzles = readBatch(stream, topology, Integer.MAX_VALUE);
+        return puzzles==null ? null : solveAll(puzzles);
+    }
+
+    /**
+     * Reads the grids of a request, all bound to the same dictionary.
+     * @param stream Reader over the grids, separated by one or more empty lines
+     * @param topology Rule that decides which letters of the grids are neighbours
+     * @param maxGrids Number of grids after which reading stops, leaving one more grid in the list to tell that there were too many
+     * @return The grids in the order read, or null if any grid is invalid
+     */
+    List<Boggle> readBatch(BufferedReader stream, Topology topology, int maxGrids) throws IOException {
+        CompiledDictionary snapshot = dictionary.get();
+        List<Boggle> puzzles = new ArrayList<>();
+        while(puzzles.size() <= maxGrids){
+            // stop at the end of the input, so a trailing empty line does not add an empty grid
+            stream.mark(1);
+            if(stream.read() < 0){
+                break;
+            }
+            stream.reset();
+
+            Boggle boggle = new Boggle(snapshot);
+            boggle.topology = topology;
+            if(!boggle.getPuzzle(stream)){
+                return null;
+            }
+            if(!boggle.puzzleGrid.isEmpty()){
+                puzzles.add(boggle);
+            }
+        }
+        return puzzles;
+    }
+
+    /**
+     * Solves grids in parallel.
+     * @param puzzles The grids, as read by readBatch()
+     * @return The result lines of each grid, in the same order
+     */
+    static List<List<String>> solveAll(List<Boggle> puzzles){
+        // the common pool is used, so a bounded request executor cannot deadlock waiting for its own tasks
+        return puzzles.parallelStream().map(Boggle::solve).collect(Collectors.toList());
+    }
+
+    /**
+     * Handles a request to the solve endpoint.
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try{
+            if(!"POST".equals(exchange.getRequestMethod())){
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Puzzles have to be sent with POST\n");
+                return;
+            }
+
+            Topology topology = topologyOf(exchange.getRequestURI().getRawQuery());
+            if(topology==null){
+                respond(exchange, 400, "Unknown topology\n");
+                return;
+            }
+
+            // refuse a declared oversized body before reading it, and never read more than the limit
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if(length!=null && length.length() > 0 && Long.parseLong(length.trim()) > MAX_BODY_BYTES){
+                respond(exchange, 413, "Request larger than " + MAX_BODY_BYTES + " bytes\n");
+                return;
+            }
+            byte[] request = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+            if(request.length > MAX_BODY_BYTES){
+                respond(exchange, 413, "Request larger than " + MAX_BODY_BYTES + " bytes\n");
+                return;
+            }
+
+            BufferedReader stream = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(request), StandardCharsets.UTF_8));
+            List<Boggle> puzzles = readBatch(stream, topology, MAX_GRIDS);
+            if(puzzles==null){
+                respond(exchange, 400, "Error while reading puzzle\n");
+                return;
+            }
+            if(puzzles.size() > MAX_GRIDS){
+                respond(exchange, 413, "Request holds more than " + MAX_GRIDS + " grids\n");
+                return;
+            }
+            List<List<String>> results = solveAll(puzzles);
+
+            StringBuilder body = new StringBuilder();
+            for(int i=0;i<results.size();i++){
+                if(i > 0){
+                    body.append('\n');
+                }
+                for(String line: results.get(i)){
+                    body.append(line).append('\n');
+                }
+            }
+            respond(exchange, 200, body.toString());
+        } catch (RuntimeException exception){
+            exception.printStackTrace();
+            // the response can only be changed if no headers were sent yet
+            if(exchange.getResponseCode()==-1){
+                respond(exchange, 500, "Error while solving puzzle\n");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads the topology named by the query of a request.
+     * @param query Query of the request URI, or null if it has none
+     * @return The topology named by the "topology" parameter, EIGHT_WAY if there is no such parameter, or null if the name is unknown
+     */
+    static Topology topologyOf(String query){
+        if(query==null){
+            return Topology.EIGHT_WAY;
+        }
+        for(String parameter: query.split("&")){
+            if(parameter.startsWith("topology=")){
+                return Topology.of(parameter.substring("topology=".length()));
+            }
+        }
+        return Topology.EIGHT_WAY;
+    }
+
+    /**
+     * Sends a plain text response.
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length==0 ? -1 : bytes.length);
+        if(bytes.length > 0){
+            try(OutputStream out = exchange.getResponseBody()){
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Creates the executor used when none is supplied. Virtual threads are looked up at run time,
+     * because the project is compiled for Java 11, which does not have them.
+     * @return An executor starting a virtual thread per task, or a cached thread pool on older runtimes
+     */
+    static ExecutorService newRequestExecutor(){
+        try{
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException exception){
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Starts a server for the given dictionary and port.
+     * @param args Path of the dictionary word list or snapshot, followed by the port to listen on
+     */
+    public static void main(String[] args) {
+        if(args.length < 2){
+            System.out.println("Usage: pkg.SolverServer {path to dictionary text file or snapshot} {port}");
+            return;
+        }
+        try{
+            Path file = Paths.get(args[0]);
+            CompiledDictionary dictionary;
+            if(DictionarySnapshot.isSnapshot(file)){
+                dictionary = DictionarySnapshot.load(file);
+            } else {
+                try(BufferedReader stream = new BufferedReader(new FileReader(args[0]))){
+                    Boggle boggle = new Boggle();
+                    if(!boggle.getDictionary(stream)){
+                        System.out.println("Error while reading dictionary");
+                        return;
+                    }
+                    dictionary = boggle.compileDictionary();
+                }
+            }
+
+            SolverServer solverServer = new SolverServer(dictionary, Integer.parseInt(args[1]));
+            solverServer.start();
+            System.out.println("Solving puzzles at http://" + solverServer.getAddress().getHostString() + ":"
+                    + solverServer.getAddress().getPort() + SOLVE_PATH);
+        } catch (FileNotFoundException fne){
+            System.out.println("File Not Found for scanning Dictionary!");
+        } catch (IOException ioException){
+            ioException.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package pkg;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder event committed for every start letter searched while collecting SolveMetrics.
+ *
+ * The event is disabled by default because a large grid produces one event per letter.
+ * It can be enabled in the settings file of a recording.
+ */
+@Name("pkg.StartCell")
+@Label("Boggle Start Letter")
+@Category("Boggle")
+@Description("Search of the words starting at one letter of a puzzle grid")
+@Enabled(false)
+public final class StartCellEvent extends Event {
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Nodes Expanded")
+    long nodesExpanded;
+
+    @Label("Words Found")
+    long wordsFound;
+}
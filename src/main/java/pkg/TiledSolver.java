@@ -0,0 +1,206 @@
+package pkg;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Solves very large puzzle grids by splitting them into square tiles that are searched independently.
+ *
+ * The grid is packed once into a flat array of letters. Each tile only starts words from its own
+ * letters, but is searched together with a halo of the surrounding letters that is as wide as the
+ * longest word of the dictionary, so every path starting inside the tile stays inside the searched region.
+ * Only the letters and neighbour table of the tiles being searched are held in memory at any time,
+ * and tiles are searched in parallel on a ForkJoinPool.
+ *
+ * When the results of the tiles are merged, each word keeps the path found from the first start letter
+ * in x-then-y order, so the result is identical to that of PuzzleSolver.solve().
+ *
+ * Any Topology that stops at the edges of the grid can be tiled, since none of its moves goes further than
+ * one letter along either axis. Grids whose edges wrap around cannot be cut into tiles.
+ */
+public class TiledSolver {
+    // The dictionary shared by all tiles.
+    private final CompiledDictionary dictionary;
+    // Number of columns in the grid.
+    private final int width;
+    // Number of rows in the grid.
+    private final int height;
+    // Letters of the grid, laid out column by column as in Board.
+    private final char[] letters;
+    // Number of columns and rows of start letters in each tile.
+    private final int tileSize;
+    // Number of letters added around each tile so that all paths starting in the tile can be followed.
+    private final int halo;
+    // Rule that decides which letters of the grid are neighbours.
+    private final Topology topology;
+
+    /**
+     * Creates a solver with a tile size chosen from the length of the longest word in the dictionary.
+     * @param dictionary The shared dictionary
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     */
+    public TiledSolver(CompiledDictionary dictionary, List<String> puzzleGrid) {
+        this(dictionary, puzzleGrid, 0);
+    }
+
+    /**
+     * @param dictionary The shared dictionary
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @param tileSize Number of columns and rows of start letters in each tile, or 0 to choose one automatically
+     */
+    public TiledSolver(CompiledDictionary dictionary, List<String> puzzleGrid, int tileSize) {
+        this(dictionary, puzzleGrid, tileSize, Topology.EIGHT_WAY);
+    }
+
+    /**
+     * @param dictionary The shared dictionary
+     * @param puzzleGrid Rows of the grid from top to bottom, all having the same length
+     * @param tileSize Number of columns and rows of start letters in each tile, or 0 to choose one automatically
+     * @param topology Rule that decides which letters of the grid are neighbours
+     * @throws IllegalArgumentException If the edges of the topology wrap around
+     */
+    public TiledSolver(CompiledDictionary dictionary, List<String> puzzleGrid, int tileSize, Topology topology) {
+        if(topology.wrapsAround()){
+            throw new IllegalArgumentException("Grids whose edges wrap around cannot be cut into tiles");
+        }
+        this.dictionary = dictionary;
+        this.topology = topology;
+        this.height = puzzleGrid.size();
+        this.width = height==0 ? 0 : puzzleGrid.get(0).length();
+        this.letters = Board.pack(puzzleGrid);
+        this.halo = Math.max(0, dictionary.getMaxWordLength()-1);
+        // keep the halo small compared to the tile, so that few letters are searched twice
+        this.tileSize = tileSize > 0 ? tileSize : Math.max(64, 8*halo);
+    }
+
+    /**
+     * Finds the words of the dictionary in the puzzle grid, searching the tiles in parallel on the given pool.
+     * @param pool The ForkJoinPool used to run the search
+     * @return A list of strings each containing the found word, its start coordinates and the directions for finding the word from those coordinates.
+     */
+    public List<String> solve(ForkJoinPool pool){
+        int tiles = tilesAcross() * tilesUp();
+        Map<String, Found> found = tiles==0 ? new HashMap<>() : pool.invoke(new TileTask(0, tiles));
+
+        Map<String, String> resultMap = new TreeMap<>();
+        for(Map.Entry<String, Found> pair: found.entrySet()){
+            resultMap.put(pair.getKey(), pair.getValue().path);
+        }
+        return PuzzleSolver.toResultList(resultMap);
+    }
+
+    /**
+     * @return Number of tiles along the X axis
+     */
+    private int tilesAcross(){
+        return (width + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * @return Number of tiles along the Y axis
+     */
+    private int tilesUp(){
+        return (height + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Searches the words starting in one tile.
+     * @param tile Tile number, counted along the Y axis first
+     * @return Map of the words found to the cell number they start from and their path information
+     */
+    private Map<String, Found> solveTile(int tile){
+        // start letters of the tile, as 0-based column and row numbers counted from the bottom
+        int fromX = (tile / tilesUp()) * tileSize;
+        int toX = Math.min(width, fromX + tileSize);
+        int fromY = (tile % tilesUp()) * tileSize;
+        int toY = Math.min(height, fromY + tileSize);
+
+        // letters searched for the tile, including the halo
+        int regionX = Math.max(0, fromX - halo);
+        int regionY = Math.max(0, fromY - halo);
+        int regionWidth = Math.min(width, toX + halo) - regionX;
+        int regionHeight = Math.min(height, toY + halo) - regionY;
+
+        char[] region = new char[regionWidth*regionHeight];
+        for(int column=0;column<regionWidth;column++){
+            System.arraycopy(letters, (regionX+column)*height + regionY, region, column*regionHeight, regionHeight);
+        }
+        Board board = new Board(regionWidth, regionHeight, region, topology);
+
+        Map<String, Found> found = new HashMap<>();
+        SearchEngine.Listener listener = (state, startCell, word, path, length) -> {
+            int x = regionX + startCell/regionHeight;
+            int y = regionY + startCell%regionHeight;
+            found.put(new String(word, 0, length),
+                    new Found(x*height + y, "\t" + (x+1) + "\t" + (y+1) + "\t" + new String(path, 0, length-1)));
+        };
+
+        // the start letters of each column of the tile are consecutive cells of the region
+        SearchEngine engine = SearchEngine.acquire(dictionary, board, dictionary.getCapacity() <= 16L * board.size(), null);
+        try{
+            for(int x=fromX;x<toX;x++){
+                int fromCell = (x-regionX)*regionHeight + (fromY-regionY);
+                engine.solve(fromCell, fromCell + (toY-fromY), listener);
+            }
+        } finally {
+            engine.release();
+        }
+        return found;
+    }
+
+    /**
+     * A word found in a tile, with the cell number of the grid it starts from.
+     */
+    private static final class Found {
+        // Cell number of the first letter of the word in the whole grid.
+        final int startCell;
+        // Start coordinates and directions, formatted as returned by solve().
+        final String path;
+
+        Found(int startCell, String path) {
+            this.startCell = startCell;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Fork/join task that searches a range of tiles and merges their results.
+     */
+    private final class TileTask extends RecursiveTask<Map<String, Found>> {
+        private static final long serialVersionUID = 1L;
+
+        // First tile searched by this task, inclusive.
+        private final int fromTile;
+        // Last tile searched by this task, exclusive.
+        private final int toTile;
+
+        TileTask(int fromTile, int toTile) {
+            this.fromTile = fromTile;
+            this.toTile = toTile;
+        }
+
+        @Override
+        protected Map<String, Found> compute() {
+            if(toTile - fromTile == 1){
+                return solveTile(fromTile);
+            }
+
+            int middle = (fromTile + toTile) >>> 1;
+            TileTask lower = new TileTask(fromTile, middle);
+            lower.fork();
+            Map<String, Found> result = new TileTask(middle, toTile).compute();
+            Map<String, Found> lowerResult = lower.join();
+
+            // tiles do not start in x-then-y order, so keep whichever path starts from the earlier cell
+            for(Map.Entry<String, Found> pair: lowerResult.entrySet()){
+                result.merge(pair.getKey(), pair.getValue(),
+                        (current, other) -> other.startCell < current.startCell ? other : current);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pkg;
+
+import java.util.Locale;
+
+import static pkg.Boggle.*;
+
+/**
+ * Defines which letters of a puzzle grid are neighbours, and so which moves a word may make.
+ *
+ * Every move keeps the direction letter it has in the classic game, so a path reported on any
+ * topology reads the same way. A Board turns its topology into a table of neighbour cell numbers once,
+ * so the search never checks coordinates or edges itself.
+ */
+public enum Topology {
+    // The eight letters around a letter, stopping at the edges of the grid, as in the classic game.
+    EIGHT_WAY(false, UP, EAST, RIGHT, SOUTH, DOWN, WEST, LEFT, NORTH),
+    // The letters above, below, left and right of a letter, stopping at the edges of the grid.
+    FOUR_WAY(false, UP, RIGHT, DOWN, LEFT),
+    // The six letters around a letter of a hexagonal grid whose rows are each shifted half a letter to the
+    // right of the row above, so that every letter also touches the letters below-right and above-left of it.
+    HEX(false, UP, RIGHT, SOUTH, DOWN, LEFT, NORTH),
+    // The eight letters around a letter, with each edge of the grid wrapping around to the opposite edge.
+    TORUS(true, UP, EAST, RIGHT, SOUTH, DOWN, WEST, LEFT, NORTH);
+
+    // Direction letters of the moves, in the order they are searched.
+    final char[] directions;
+    // Offset of each move along the X axis.
+    final int[] offsetX;
+    // Offset of each move along the Y axis.
+    final int[] offsetY;
+    // Whether moves over an edge of the grid continue from the opposite edge.
+    final boolean wrapsAround;
+
+    Topology(boolean wrapsAround, char... directions) {
+        this.wrapsAround = wrapsAround;
+        this.directions = directions;
+        offsetX = new int[directions.length];
+        offsetY = new int[directions.length];
+        for(int i=0;i<directions.length;i++){
+            for(int j=0;j<Board.DIRECTIONS.length;j++){
+                if(Board.DIRECTIONS[j]==directions[i]){
+                    offsetX[i] = Board.OFFSET_X[j];
+                    offsetY[i] = Board.OFFSET_Y[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if moves over an edge of the grid continue from the opposite edge
+     */
+    public boolean wrapsAround(){
+        return wrapsAround;
+    }
+
+    /**
+     * @param direction A direction letter, such as Boggle.UP
+     * @return true if the topology has a move in the direction
+     */
+    public boolean hasDirection(char direction){
+        for(char move: directions){
+            if(move==direction){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks up a topology by name, ignoring case, such as "torus" or "four_way".
+     * @param name Name of the topology
+     * @return The topology, or null if there is none of that name
+     */
+    public static Topology of(String name){
+        for(Topology topology: values()){
+            if(topology.name().equals(name.toUpperCase(Locale.ROOT))){
+                return topology;
+            }
+        }
+        return null;
+    }
+}
@@ -1,8 +1,7 @@
 package pkg;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /***************************************************************************************
  *    This method is adapted and modified from the following source:
@@ -16,14 +15,13 @@ import java.util.Map;
 /**
  * Defines the data and methods for generation of a Trie data structure.
  * It is used for the generation of a Trie dictionary from the provided list of words.
+ *
+ * The Trie is stored as a double-array: every node is a state index, and the child of state s
+ * for a letter with alphabet code c lives at index base[s]+c if check[base[s]+c] points back to s.
+ * Moving to a child is therefore two array reads instead of a hash lookup, and each node costs
+ * two ints and one bit instead of a HashMap, its entries and boxed characters.
  */
 public class Trie {
-    // A HashMap that stores a character of a word as a key and a Trie of its subsequent letters as the value.
-    Map<Character, Trie> children = new HashMap<>();
-
-    // Checks if the string formed by going from the root of Trie to the current letter is a word.
-    boolean isAWord = false;
-
     // Return value of search() method when we cannot find the specified word in the Trie.
     public static final int RETURN_IS_LEAF = 0;
     // Return value of search() method when we are able to find the specified word at the leaf node of the Trie.
@@ -33,6 +31,125 @@ public class Trie {
     // Return value of search() method when we are able to find a the specified word which is also a substring of another word.
     public static final int RETURN_IS_WORD_SUBSTRING = 3;
 
+    // State index of the root of the Trie.
+    public static final int ROOT = 0;
+    // Value returned by child() when a letter cannot be followed from a state.
+    public static final int NO_STATE = -1;
+
+    // Initial number of states allocated for the double-array.
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Maps a character to its alphabet code. Code 0 means the character is not part of any word.
+    int[] codes = new int[128];
+    // Maps an alphabet code back to its character.
+    char[] letters = new char[32];
+    // Number of distinct characters seen so far. Valid codes are 1 to alphabetSize.
+    int alphabetSize = 0;
+
+    // Offset added to a letter code to find the children of a state. 0 if the state has no children.
+    int[] base = new int[INITIAL_CAPACITY];
+    // Parent of a state plus one. 0 marks a free slot.
+    int[] check = new int[INITIAL_CAPACITY];
+    // Bitset of the states at which a word ends.
+    long[] words = new long[INITIAL_CAPACITY >>> 6];
+
+    // Number of slots in use, including the root.
+    int stateCount = 1;
+    // Number of distinct words added.
+    int wordCount = 0;
+    // Length of the longest word added.
+    int maxWordLength = 0;
+    // Lowest slot that may still be free, used as a starting point when looking for a new base.
+    int nextFree = 1;
+
+    public Trie() {
+        // the root is never the child of any state, so mark its slot as taken
+        check[ROOT] = -1;
+    }
+
+    /**
+     * Creates an empty Trie whose alphabet codes are assigned to the given letters in order,
+     * so that several tries built from different words share the same codes.
+     * @param alphabet Letters to assign codes 1, 2, ... to
+     */
+    Trie(char[] alphabet) {
+        this(alphabet, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Same as Trie(char[]), with room for the given number of states before the double-array has to grow.
+     * @param alphabet Letters to assign codes 1, 2, ... to
+     * @param capacity Number of states to allocate
+     */
+    private Trie(char[] alphabet, int capacity) {
+        base = new int[capacity];
+        check = new int[capacity];
+        words = new long[(capacity + 63) >>> 6];
+        // the root is never the child of any state, so mark its slot as taken
+        check[ROOT] = -1;
+        for(char letter: alphabet){
+            if(codeOf(letter)==0){
+                addLetter(letter);
+            }
+        }
+    }
+
+    /**
+     * Joins tries whose words each start with a different letter into a single Trie.
+     *
+     * The double-arrays of the tries are copied one after the other, with every base and check moved
+     * by the offset of their copy. The first letters become children of a new root, whose child slots
+     * are placed in front of all copies. The arrays of the new Trie are allocated once at their final
+     * size, and each shard is removed from the list as soon as it is copied, so that its arrays can be
+     * reclaimed while the others are copied.
+     * @param alphabet The alphabet all tries were created with
+     * @param shards Tries created with Trie(char[]), no two of them having words with the same first letter.
+     *               Every element is set to null
+     * @return A new Trie holding the words of all tries
+     */
+    static Trie merge(char[] alphabet, List<Trie> shards){
+        // slots 1 to alphabetSize+1 hold the first letters, each at rootBase plus its code
+        int rootBase = 1;
+        int capacity = rootBase + alphabet.length + 1;
+        for(Trie shard: shards){
+            capacity += shard.usedSlots();
+        }
+        Trie merged = new Trie(alphabet, capacity);
+
+        int offset = rootBase + merged.alphabetSize + 1;
+        for(int index=0;index<shards.size();index++){
+            Trie shard = shards.set(index, null);
+            if(shard.alphabetSize > merged.alphabetSize
+                    || !Arrays.equals(shard.letters, 1, shard.alphabetSize+1, merged.letters, 1, shard.alphabetSize+1)){
+                throw new IllegalArgumentException("Tries created with different alphabets cannot be merged");
+            }
+            int used = shard.usedSlots();
+            for(int slot=1;slot<used;slot++){
+                if(shard.check[slot]==0){
+                    continue;
+                }
+                int target = shard.mergedSlot(slot, rootBase, offset);
+                if(merged.check[target]!=0){
+                    throw new IllegalArgumentException("Two tries have words starting with " + shard.letters[slot - shard.base[ROOT]]);
+                }
+                int parent = shard.check[slot]-1;
+                merged.check[target] = (parent==ROOT ? ROOT : shard.mergedSlot(parent, rootBase, offset)) + 1;
+                merged.base[target] = shard.base[slot]==0 ? 0 : shard.base[slot] + offset;
+                if(shard.isWord(slot)){
+                    merged.words[target >>> 6] |= 1L << target;
+                }
+            }
+            if(shard.base[ROOT]!=0){
+                merged.base[ROOT] = rootBase;
+            }
+            merged.stateCount += shard.stateCount - 1;
+            merged.wordCount += shard.wordCount;
+            merged.maxWordLength = Math.max(merged.maxWordLength, shard.maxWordLength);
+            offset += used;
+        }
+        return merged;
+    }
+
     /**
      * Iterate over the provided list of words and adds them to the Trie.
      * @param wordList List of words for dictionary
@@ -48,18 +165,36 @@ public class Trie {
      * @param word
      */
     public void addWord(String word){
-        Trie current = this;
+        addWord((CharSequence) word);
+    }
 
-        for(char letter: word.toCharArray()){
-            if(current.children.get(letter)==null){
-                current.children.put(letter, new Trie());
+    /**
+     * Same as addWord(String), for words held in a reusable buffer. Adding a word that is already in the Trie changes nothing.
+     * @param word The letters of the word
+     */
+    void addWord(CharSequence word){
+        int current = ROOT;
+
+        for(int i=0;i<word.length();i++){
+            char letter = word.charAt(i);
+            int code = codeOf(letter);
+            if(code==0){
+                code = addLetter(letter);
             }
 
-            current = current.children.get(letter);
+            int next = child(current, code);
+            if(next==NO_STATE){
+                next = addChild(current, code);
+            }
 
+            current = next;
         }
 
-        current.isAWord = true;
+        if(!isWord(current)){
+            words[current >>> 6] |= 1L << current;
+            wordCount++;
+            maxWordLength = Math.max(maxWordLength, word.length());
+        }
     }
 
     /**
@@ -68,33 +203,369 @@ public class Trie {
      * @return Returns any of the constants mentioned above accordingly.
      */
     public int search(String word) {
-        Trie current = this;
+        int current = ROOT;
 
         // keep searching the children till we don't find a particular character or reach leaf node
-        for(char letter: word.toCharArray()){
-            current = current.children.get(letter);
+        for(int i=0;i<word.length();i++){
+            current = child(current, codeOf(word.charAt(i)));
 
-            if(current==null){
+            if(current==NO_STATE){
                 return RETURN_IS_LEAF;
             }
         }
 
-        if(current.isAWord){
-            // if string is word and reached leaf node of Trie
-            if(current.children.size()==0){
-                return RETURN_IS_WORD;
-            } else { // if string is word but not reached leaf node of Trie, i.e., it is a substring of another word
-                return RETURN_IS_WORD_SUBSTRING;
+        return state(current);
+    }
+
+    /**
+     * Same as search(), but also counts the letters followed and the outcome of the lookup into the given metrics.
+     * @param word
+     * @param metrics Receives the counters of the lookup
+     * @return Returns any of the constants mentioned above accordingly.
+     */
+    public int search(String word, SolveMetrics metrics) {
+        int current = ROOT;
+
+        for(int i=0;i<word.length();i++){
+            current = child(current, codeOf(word.charAt(i)));
+
+            if(current==NO_STATE){
+                metrics.lookup(RETURN_IS_LEAF);
+                return RETURN_IS_LEAF;
+            }
+            metrics.expand(i+1);
+        }
+
+        int result = state(current);
+        metrics.lookup(result);
+        return result;
+    }
+
+    /**
+     * Classifies a state of the Trie in the same way as search() classifies a string.
+     * @param state A state index returned by child()
+     * @return Returns any of the RETURN_* constants
+     */
+    public int state(int state){
+        if(isWord(state)){
+            // if string is word and reached leaf node of Trie, else it is also a substring of another word
+            return hasChildren(state) ? RETURN_IS_WORD_SUBSTRING : RETURN_IS_WORD;
+        }
+        // if string is not a word, check if there are branches to explore
+        return hasChildren(state) ? RETURN_IS_SUBSTRING : RETURN_IS_LEAF;
+    }
+
+    /**
+     * Creates a cursor positioned at the root of this Trie.
+     * @return A new Cursor instance
+     */
+    public Cursor cursor(){
+        return new Cursor();
+    }
+
+    /**
+     * Returns the alphabet code of a character.
+     * @param letter Character to look up
+     * @return The code of the letter, or 0 if no word in the Trie contains it
+     */
+    public int codeOf(char letter){
+        return letter < codes.length ? codes[letter] : 0;
+    }
+
+    /**
+     * Follows the edge labelled with the given alphabet code.
+     * @param state State to move from
+     * @param code Alphabet code of the next letter, as returned by codeOf()
+     * @return The child state, or NO_STATE if there is no such edge
+     */
+    public int child(int state, int code){
+        int offset = base[state];
+        if(offset==0 || code==0){
+            return NO_STATE;
+        }
+        int next = offset + code;
+        return next < check.length && check[next]==state+1 ? next : NO_STATE;
+    }
+
+    /**
+     * @param state A state index
+     * @return true if a word ends at the given state
+     */
+    public boolean isWord(int state){
+        return (words[state >>> 6] & (1L << state)) != 0;
+    }
+
+    /**
+     * @param state A state index
+     * @return true if at least one longer word continues from the given state
+     */
+    public boolean hasChildren(int state){
+        return base[state]!=0;
+    }
+
+    /**
+     * @return Number of states in the Trie, including the root
+     */
+    public int getStateCount(){
+        return stateCount;
+    }
+
+    /**
+     * @return Number of distinct words stored in the Trie
+     */
+    public int getWordCount(){
+        return wordCount;
+    }
+
+    /**
+     * @return Length of the longest word stored in the Trie
+     */
+    public int getMaxWordLength(){
+        return maxWordLength;
+    }
+
+    /**
+     * @return The slot that a state of this Trie is copied to by merge(). First letters move next to the new root
+     */
+    private int mergedSlot(int slot, int rootBase, int offset){
+        return check[slot]-1==ROOT ? rootBase + (slot - base[ROOT]) : slot + offset;
+    }
+
+    /**
+     * @return Number of slots up to and including the last slot in use
+     */
+    private int usedSlots(){
+        int used = check.length;
+        while(used > 1 && check[used-1]==0){
+            used--;
+        }
+        return used;
+    }
+
+    /**
+     * Shrinks the double-array to the slots in use, releasing the room left by growing it.
+     * Adding words afterwards grows it again.
+     */
+    void trimToSize(){
+        int used = usedSlots();
+        base = Arrays.copyOf(base, used);
+        check = Arrays.copyOf(check, used);
+        words = Arrays.copyOf(words, (used + 63) >>> 6);
+        nextFree = Math.min(nextFree, used);
+    }
+
+    /**
+     * Assigns the next alphabet code to a character seen for the first time.
+     */
+    private int addLetter(char letter){
+        if(letter >= codes.length){
+            codes = Arrays.copyOf(codes, Math.max(letter+1, codes.length*2));
+        }
+        alphabetSize++;
+        if(alphabetSize >= letters.length){
+            letters = Arrays.copyOf(letters, letters.length*2);
+        }
+        codes[letter] = alphabetSize;
+        letters[alphabetSize] = letter;
+        return alphabetSize;
+    }
+
+    /**
+     * Creates a new child of the given state, moving the existing children of the state
+     * to a new base if the slot for the new letter is taken.
+     * @return State index of the new child
+     */
+    private int addChild(int state, int code){
+        if(base[state]==0){
+            // findBase() may grow the arrays, so look it up before storing into base
+            int newBase = findBase(new int[]{code}, 1);
+            base[state] = newBase;
+        } else {
+            int slot = base[state] + code;
+            ensureCapacity(slot+1);
+            if(check[slot]!=0){
+                relocate(state, code);
+            }
+        }
+
+        int slot = base[state] + code;
+        occupy(slot, state);
+        return slot;
+    }
+
+    /**
+     * Moves all children of a state to a base at which the children and the new letter all fit.
+     */
+    private void relocate(int state, int newCode){
+        int oldBase = base[state];
+        int[] children = new int[alphabetSize+1];
+        int count = 0;
+        for(int code=1;code<=alphabetSize;code++){
+            if(child(state, code)!=NO_STATE){
+                children[count++] = code;
             }
         }
+        children[count++] = newCode;
+
+        int newBase = findBase(children, count);
 
-        // if string is not a word but there are branches to explore
-        if(current.children.size()!=0){
-            return RETURN_IS_SUBSTRING;
-        } else { // if string is not a word and there are no branches to explore
-            return RETURN_IS_LEAF;
+        // copy every existing child to its new slot and point its own children back at it
+        for(int i=0;i<count-1;i++){
+            int from = oldBase + children[i];
+            int to = newBase + children[i];
+            occupy(to, state);
+            base[to] = base[from];
+            if(isWord(from)){
+                words[to >>> 6] |= 1L << to;
+            }
+            if(base[from]!=0){
+                for(int code=1;code<=alphabetSize;code++){
+                    int grandChild = base[from] + code;
+                    if(grandChild < check.length && check[grandChild]==from+1){
+                        check[grandChild] = to+1;
+                    }
+                }
+            }
+            release(from);
         }
+        base[state] = newBase;
+    }
 
+    /**
+     * Finds a base such that base+code is a free slot for each of the given codes.
+     */
+    private int findBase(int[] children, int count){
+        int first = children[0];
+        int last = first;
+        for(int i=1;i<count;i++){
+            last = Math.max(last, children[i]);
+        }
+
+        int position = Math.max(nextFree, first+1);
+        int taken = 0;
+        int scanned = 0;
+        while(true){
+            ensureCapacity(position + last + 1);
+            scanned++;
+            if(check[position]!=0){
+                taken++;
+                position++;
+                continue;
+            }
+
+            int candidate = position - first;
+            boolean fits = true;
+            for(int i=1;i<count && fits;i++){
+                fits = check[candidate + children[i]]==0;
+            }
+            if(fits){
+                // skip over densely packed regions so later searches do not scan them again
+                if(taken*20 >= scanned*19){
+                    nextFree = position;
+                }
+                return candidate;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Marks a slot as a child of the given state.
+     */
+    private void occupy(int slot, int parent){
+        ensureCapacity(slot+1);
+        check[slot] = parent+1;
+        base[slot] = 0;
+        stateCount++;
+        if(slot==nextFree){
+            while(nextFree < check.length && check[nextFree]!=0){
+                nextFree++;
+            }
+        }
+    }
+
+    /**
+     * Frees a slot that has been moved by relocate().
+     */
+    private void release(int slot){
+        check[slot] = 0;
+        base[slot] = 0;
+        words[slot >>> 6] &= ~(1L << slot);
+        stateCount--;
+    }
+
+    /**
+     * Grows the double-array so that it holds at least the given number of slots.
+     */
+    private void ensureCapacity(int capacity){
+        if(capacity <= check.length){
+            return;
+        }
+        int newCapacity = Math.max(capacity, check.length + (check.length >>> 1));
+        base = Arrays.copyOf(base, newCapacity);
+        check = Arrays.copyOf(check, newCapacity);
+        words = Arrays.copyOf(words, (newCapacity + 63) >>> 6);
+    }
+
+    /**
+     * Keeps track of the state reached by a string that is built up and shortened one letter at a time.
+     * Extending or shortening the string by one letter costs a single child lookup, instead of
+     * searching the whole string again from the root of the Trie.
+     */
+    public class Cursor {
+        // States reached by each prefix of the current string. NO_STATE once the prefix left the Trie.
+        int[] states = new int[16];
+        // Length of the current string.
+        int depth = 0;
+
+        Cursor() {
+            states[0] = ROOT;
+        }
+
+        /**
+         * Appends a letter to the current string.
+         * @param letter The letter to append
+         * @return The RETURN_* constant for the extended string
+         */
+        public int advance(char letter){
+            if(depth+1 >= states.length){
+                states = Arrays.copyOf(states, states.length*2);
+            }
+            int current = states[depth];
+            states[++depth] = current==NO_STATE ? NO_STATE : child(current, codeOf(letter));
+            return state();
+        }
+
+        /**
+         * Removes the last letter of the current string. Does nothing if the string is empty.
+         */
+        public void retreat(){
+            if(depth>0){
+                depth--;
+            }
+        }
+
+        /**
+         * @return The RETURN_* constant for the current string, as search() would return it
+         */
+        public int state(){
+            int current = states[depth];
+            return current==NO_STATE ? RETURN_IS_LEAF : Trie.this.state(current);
+        }
+
+        /**
+         * @return Length of the current string
+         */
+        public int depth(){
+            return depth;
+        }
+
+        /**
+         * Empties the current string and moves back to the root.
+         */
+        public void reset(){
+            depth = 0;
+        }
     }
 
 }
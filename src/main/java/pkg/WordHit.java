@@ -0,0 +1,88 @@
+package pkg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Defines a word found in a puzzle grid, together with the coordinates of its first letter
+ * and the directions for finding the word from those coordinates.
+ */
+public final class WordHit {
+    // The word found in the puzzle grid.
+    private final String word;
+    // The X coordinate of the first letter of the word.
+    private final int startX;
+    // The Y coordinate of the first letter of the word.
+    private final int startY;
+    // Directions moved to reach the second and following letters, one of the direction constants of Boggle per byte.
+    private final byte[] directions;
+
+    public WordHit(String word, int startX, int startY, byte[] directions) {
+        this.word = word;
+        this.startX = startX;
+        this.startY = startY;
+        this.directions = directions.clone();
+    }
+
+    /**
+     * Creates a hit from the reusable buffers of a SearchEngine.
+     */
+    static WordHit of(Board board, int startCell, char[] word, char[] path, int length){
+        byte[] directions = new byte[length-1];
+        for(int i=0;i<directions.length;i++){
+            directions[i] = (byte) path[i];
+        }
+        return new WordHit(new String(word, 0, length), board.x(startCell), board.y(startCell), directions);
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    /**
+     * @return A copy of the directions for finding the word from its first letter
+     */
+    public byte[] getDirections() {
+        return directions.clone();
+    }
+
+    /**
+     * @return The directions for finding the word as a string, e.g. "DSUESD"
+     */
+    public String getPath() {
+        return new String(directions, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return The hit in the format returned by Boggle.solve(): word, start X, start Y and path separated by tabs
+     */
+    @Override
+    public String toString() {
+        return word + "\t" + startX + "\t" + startY + "\t" + getPath();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if(this==other){
+            return true;
+        }
+        if(!(other instanceof WordHit)){
+            return false;
+        }
+        WordHit hit = (WordHit) other;
+        return startX==hit.startX && startY==hit.startY && word.equals(hit.word) && Arrays.equals(directions, hit.directions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * word.hashCode() + startX) + startY) + Arrays.hashCode(directions);
+    }
+}